@@ -0,0 +1,122 @@
+package com.example.backend.Config;
+
+import com.example.backend.Services.SearchService.CatalogSearchService;
+import com.example.backend.Services.SearchService.SearchQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columns and indexes that Hibernate's ddl-auto cannot describe (generated
+ * columns, GIN and multi-column sort indexes).
+ * Every statement is idempotent, so it is safe to run on each startup.
+ * <p>
+ * Afterwards, rows written before search keys existed get theirs and the
+ * cross-catalog search_index is rebuilt from the four catalog tables.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogSearchService catalogSearchService;
+
+    private static final int BACKFILL_BATCH = 1000;
+
+    // Table → the columns its search_key is folded from, as in the entity's updateSearchKey()
+    private static final Map<String, List<String>> SEARCH_KEY_SOURCES = Map.of(
+            "book", List.of("name", "author", "publisher"),
+            "badiiy", List.of("name", "author", "publisher"),
+            "audio", List.of("name", "author", "publisher"),
+            "ilmiy", List.of("mavzu", "ixtisosligi", "author")
+    );
+
+    private static final List<String> STATEMENTS = List.of(
+            // Full-text vector over the catalog fields, kept up to date by Postgres itself
+            """
+            ALTER TABLE book ADD COLUMN IF NOT EXISTS search_vector tsvector
+                GENERATED ALWAYS AS (
+                    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                    setweight(to_tsvector('simple', coalesce(author, '')), 'B') ||
+                    setweight(to_tsvector('simple', coalesce(publisher, '')), 'C') ||
+                    setweight(to_tsvector('simple', coalesce(annotatsiya, '')), 'D')
+                ) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_book_search_vector ON book USING gin (search_vector)",
+            // Keyset pagination walks these in (created_at DESC, id DESC) order
+            "CREATE INDEX IF NOT EXISTS idx_book_created_at_id ON book (created_at DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_badiiy_created_at_id ON badiiy (created_at DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_audio_created_at_id ON audio (created_at DESC, id DESC)",
+            // Trigram indexes for typo-tolerant LIKE / word similarity (<%) on the folded search keys
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_book_search_key ON book USING gin (search_key gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_badiiy_search_key ON badiiy USING gin (search_key gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_audio_search_key ON audio USING gin (search_key gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_ilmiy_search_key ON ilmiy USING gin (search_key gin_trgm_ops)",
+            // One row per book / badiiy / audio / ilmiy for /api/v1/search, see CatalogSearchService
+            """
+            CREATE TABLE IF NOT EXISTS search_index (
+                type varchar(16) NOT NULL,
+                entity_id integer NOT NULL,
+                title text,
+                author text,
+                image_id uuid,
+                created_at timestamp,
+                search_key text,
+                PRIMARY KEY (type, entity_id)
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_search_index_key ON search_index USING gin (search_key gin_trgm_ops)"
+    );
+
+    @Override
+    public void run(String... args) {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                System.err.println("Search index statement failed: " + e.getMessage());
+            }
+        }
+        SEARCH_KEY_SOURCES.forEach((table, columns) -> {
+            try {
+                backfillSearchKeys(table, columns);
+            } catch (Exception e) {
+                System.err.println("Search key backfill of " + table + " failed: " + e.getMessage());
+            }
+        });
+        try {
+            catalogSearchService.reindexAll();
+        } catch (Exception e) {
+            System.err.println("Search index rebuild failed: " + e.getMessage());
+        }
+    }
+
+    private void backfillSearchKeys(String table, List<String> columns) {
+        String select = "SELECT id, " + String.join(", ", columns) + " FROM " + table
+                + " WHERE search_key IS NULL ORDER BY id LIMIT " + BACKFILL_BATCH;
+        String update = "UPDATE " + table + " SET search_key = ? WHERE id = ?";
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = new ArrayList<>();
+            jdbcTemplate.query(select, rs -> {
+                String[] parts = new String[columns.size()];
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = rs.getString(i + 2);
+                }
+                rows.add(new Object[]{SearchQueries.toSearchKey(parts), rs.getInt(1)});
+            });
+            if (rows.isEmpty()) break;
+            jdbcTemplate.batchUpdate(update, rows);
+            total += rows.size();
+        }
+        if (total > 0) {
+            System.out.println("Search keys filled in for " + total + " " + table + " rows");
+        }
+    }
+}
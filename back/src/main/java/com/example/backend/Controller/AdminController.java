@@ -1,13 +1,25 @@
 package com.example.backend.Controller;
 
+import com.example.backend.DTO.ImportJobDTO;
+import com.example.backend.Services.AttachmentService.AttachmentLayoutMigration;
+import com.example.backend.Services.AttachmentService.AttachmentStorage;
+import com.example.backend.Services.CatalogImportService.ImportCatalog;
+import com.example.backend.Services.CatalogImportService.ImportJob;
+import com.example.backend.Services.CatalogImportService.ImportJobService;
 import com.example.backend.Services.FileSystemImportService.FileSystemImportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/admin-diyor")
@@ -15,14 +27,40 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     private final FileSystemImportService importService;
+    private final ImportJobService importJobService;
+    private final AttachmentStorage attachmentStorage;
+    private final AttachmentLayoutMigration attachmentLayoutMigration;
 
     @GetMapping("/import/books")
     public ResponseEntity<?> importBooks() {
         try {
-            importService.importBooksFromFanlar();
-            return ResponseEntity.ok("Books imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            ImportJob job = importJobService.start(ImportCatalog.BOOKS, "Import books with attachments from ./fanlar", progress -> {
+                try {
+                    importService.importBooksFromFanlar(progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ImportJobDTO.of(job));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /* =========================
+       ATTACHMENT GC
+    ========================= */
+    @PostMapping("/attachments/gc")
+    public ResponseEntity<AttachmentStorage.GarbageReport> collectAttachmentGarbage() {
+        return ResponseEntity.ok(attachmentStorage.collectGarbage());
+    }
+
+    // backend/files<prefix>/ dagi eski fayllarni backend/files/sharded/ ga ko‘chirish
+    @PostMapping("/attachments/migrate-layout")
+    public ResponseEntity<?> migrateAttachmentLayout(@RequestParam(defaultValue = "500") int batchSize) {
+        if (batchSize < 1 || batchSize > 10_000) {
+            return ResponseEntity.badRequest().body("batchSize must be between 1 and 10000");
         }
+        return ResponseEntity.ok(attachmentLayoutMigration.migrate(batchSize));
     }
 }
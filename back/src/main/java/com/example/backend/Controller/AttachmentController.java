@@ -1,6 +1,8 @@
 package com.example.backend.Controller;
 
 import com.example.backend.Services.AttachmentService.AttachmentService;
+import com.example.backend.Services.AttachmentService.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpEntity;
@@ -16,6 +18,7 @@ import java.util.UUID;
 public class AttachmentController {
 
     private final AttachmentService attachmentService;
+    private final ChunkedUploadService chunkedUploadService;
 
     @PostMapping("/upload")
     public HttpEntity<?> uploadFile(@RequestParam MultipartFile photo,
@@ -23,15 +26,69 @@ public class AttachmentController {
         return attachmentService.uploadFile(photo, prefix);
     }
 
+    // Katta fayllar uchun: fayl so‘rov tanasida (application/octet-stream), multipart'siz
+    @PostMapping("/upload/stream")
+    public HttpEntity<?> uploadStream(HttpServletRequest request,
+                                      @RequestParam String prefix,
+                                      @RequestParam String name,
+                                      @RequestHeader(value = "X-Content-SHA256", required = false) String sha256) throws IOException {
+        return attachmentService.uploadStream(request, prefix, name, sha256);
+    }
+
+    /* =========================
+       RESUMABLE (CHUNKED) UPLOAD
+    ========================= */
+    @PostMapping("/chunked")
+    public HttpEntity<?> initChunkedUpload(@RequestParam String prefix,
+                                           @RequestParam String name,
+                                           @RequestParam long size,
+                                           @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return chunkedUploadService.init(prefix, name, size, chunkSize);
+    }
+
+    @GetMapping("/chunked/{uploadId}")
+    public HttpEntity<?> chunkedUploadStatus(@PathVariable UUID uploadId) throws IOException {
+        return chunkedUploadService.status(uploadId);
+    }
+
+    @PutMapping("/chunked/{uploadId}/{index}")
+    public HttpEntity<?> putChunk(HttpServletRequest request,
+                                  @PathVariable UUID uploadId,
+                                  @PathVariable int index,
+                                  @RequestHeader(value = "X-Content-SHA256", required = false) String sha256) throws IOException {
+        return chunkedUploadService.putChunk(uploadId, index, request, sha256);
+    }
+
+    @PostMapping("/chunked/{uploadId}/complete")
+    public HttpEntity<?> completeChunkedUpload(@PathVariable UUID uploadId,
+                                               @RequestParam(required = false) String sha256) throws IOException {
+        return chunkedUploadService.complete(uploadId, sha256);
+    }
+
+    @DeleteMapping("/chunked/{uploadId}")
+    public HttpEntity<?> abortChunkedUpload(@PathVariable UUID uploadId) throws IOException {
+        return chunkedUploadService.abort(uploadId);
+    }
+
     @GetMapping("/getFile/{id}")
-    public void getFile(HttpServletResponse response, @PathVariable UUID id) throws IOException {
-        attachmentService.getFile(response, id);
+    public void getFile(HttpServletRequest request, HttpServletResponse response, @PathVariable UUID id) throws IOException {
+        attachmentService.getFile(request, response, id);
     }
 
 
+    // ?size=small|medium|large — muqova uchun kichraytirilgan nusxa
     @GetMapping("/img/{id}")
-    public void openImage(HttpServletResponse response, @PathVariable UUID id) throws IOException {
+    public void openImage(HttpServletRequest request, HttpServletResponse response, @PathVariable UUID id,
+                          @RequestParam(required = false) String size) throws IOException {
+        response.setHeader("Content-Disposition", "inline");
+        attachmentService.getImage(request, response, id, size);
+    }
+
+    // PDF'ning birinchi sahifa(lar)i rasm ko‘rinishida: butun faylni yuklamasdan ko‘rib chiqish uchun
+    @GetMapping("/preview/{id}")
+    public void openPreview(HttpServletRequest request, HttpServletResponse response, @PathVariable UUID id,
+                            @RequestParam(defaultValue = "1") int pages) throws IOException {
         response.setHeader("Content-Disposition", "inline");
-        attachmentService.getFile(response, id);
+        attachmentService.getPreview(request, response, id, pages);
     }
 }
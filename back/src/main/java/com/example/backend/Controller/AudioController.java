@@ -1,10 +1,13 @@
 package com.example.backend.Controller;
 
 import com.example.backend.DTO.AudioDTO;
+import com.example.backend.DTO.CursorPageDTO;
+import com.example.backend.DTO.KeysetCursor;
 import com.example.backend.Entity.Attachment;
 import com.example.backend.Entity.Audio;
 import com.example.backend.Repository.AttachmentRepo;
 import com.example.backend.Repository.AudioRepo;
+import com.example.backend.Services.SearchService.SearchQueries;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -20,6 +23,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -71,6 +75,7 @@ public class AudioController {
     ========================= */
     @GetMapping
     public ResponseEntity<?> getAll(
+            @RequestParam(defaultValue = "") String q,
             @RequestParam(defaultValue = "") String title,
             @RequestParam(defaultValue = "") String author,
             @RequestParam(defaultValue = "") String publisher,
@@ -79,12 +84,46 @@ public class AudioController {
     ) {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Audio> result = audioRepo
-                .findAllByTitleAuthorPublisher(title, author, publisher, pageable);
+        // q: nom, muallif va nashriyot bo‘yicha xatoga chidamli qidiruv (lotin/kirill)
+        String key = SearchQueries.toSearchKey(q);
+        Page<Audio> result = key.isEmpty()
+                ? audioRepo.findAllByTitleAuthorPublisher(title, author, publisher, pageable)
+                : audioRepo.searchFuzzy(key, pageable);
 
         return ResponseEntity.ok(result.map(this::toDTO));
     }
 
+    /* =========================
+       INFINITE SCROLL (KEYSET)
+    ========================= */
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scroll(
+            @RequestParam(defaultValue = "") String title,
+            @RequestParam(defaultValue = "") String author,
+            @RequestParam(defaultValue = "") String publisher,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        if (size < 1 || size > CursorPageDTO.MAX_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + CursorPageDTO.MAX_SIZE);
+        }
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        List<Audio> rows = audioRepo.findPageAfter(
+                title, author, publisher,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                size + 1);
+        Long total = withTotal ? audioRepo.countByTitleAuthorPublisher(title, author, publisher) : null;
+        return ResponseEntity.ok(CursorPageDTO.of(
+                rows, size, a -> new KeysetCursor(a.getCreatedAt(), a.getId()), this::toDTO, total));
+    }
+
     /* =========================
        READ ONE
     ========================= */
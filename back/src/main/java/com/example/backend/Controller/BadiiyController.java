@@ -1,11 +1,14 @@
 package com.example.backend.Controller;
 
 import com.example.backend.DTO.BadiiyDTO;
+import com.example.backend.DTO.CursorPageDTO;
+import com.example.backend.DTO.KeysetCursor;
 import com.example.backend.Entity.Attachment;
 import com.example.backend.Entity.Badiiy;
 import com.example.backend.Entity.Book;
 import com.example.backend.Repository.AttachmentRepo;
 import com.example.backend.Repository.BadiiyRepo;
+import com.example.backend.Services.SearchService.SearchQueries;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -81,10 +84,42 @@ public class BadiiyController {
             @RequestParam(defaultValue = "10") int size)
      {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Badiiy> badiiyBooks = badiiyRepo.findAllByTitleAuthorPublisher(query, pageable);
+        String key = SearchQueries.toSearchKey(query);
+        Page<Badiiy> badiiyBooks = key.isEmpty()
+                ? badiiyRepo.findAllByTitleAuthorPublisher(query, pageable)
+                : badiiyRepo.searchFuzzy(key, pageable);
         return ResponseEntity.ok(badiiyBooks);
     }
 
+    /* =========================
+       INFINITE SCROLL (KEYSET)
+    ========================= */
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scroll(
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        if (size < 1 || size > CursorPageDTO.MAX_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + CursorPageDTO.MAX_SIZE);
+        }
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        List<Badiiy> rows = badiiyRepo.findPageAfter(
+                query,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                size + 1);
+        Long total = withTotal ? badiiyRepo.countByTitleAuthor(query) : null;
+        return ResponseEntity.ok(CursorPageDTO.of(
+                rows, size, b -> new KeysetCursor(b.getCreatedAt(), b.getId()), this::toDTO, total));
+    }
+
     /* =========================
        READ ONE
     ========================= */
@@ -6,6 +6,7 @@ import com.example.backend.Entity.Book;
 import com.example.backend.Repository.AudioRepo;
 import com.example.backend.Repository.BadiiyRepo;
 import com.example.backend.Repository.BookRepo;
+import com.example.backend.Services.SearchService.SearchQueries;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -118,7 +119,10 @@ public class BookController {
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Badiiy> badiiyBooks = badiiyRepo.findAllByTitleAuthorPublisher(query, pageable);
+        String key = SearchQueries.toSearchKey(query);
+        Page<Badiiy> badiiyBooks = key.isEmpty()
+                ? badiiyRepo.findAllByTitleAuthorPublisher(query, pageable)
+                : badiiyRepo.searchFuzzy(key, pageable);
         return ResponseEntity.ok(badiiyBooks);
     }
 
@@ -1,22 +1,29 @@
 package com.example.backend.Controller;
 
 import com.example.backend.DTO.BookDTO;
+import com.example.backend.DTO.CursorPageDTO;
+import com.example.backend.DTO.FacetedPageDTO;
+import com.example.backend.DTO.KeysetCursor;
 import com.example.backend.DTO.ShelfTitleCountDTO;
 import com.example.backend.Entity.*;
 import com.example.backend.Repository.*;
 import com.example.backend.Repository.ShelfRepo;
 import com.example.backend.DTO.ShelfDTO;
+import com.example.backend.Services.ReportService.BookReportService;
+import com.example.backend.Services.SearchService.BookBrowseService;
+import com.example.backend.Services.SearchService.BookFilter;
+import com.example.backend.Services.SearchService.SearchQueries;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,9 +43,10 @@ public class BooksController {
     private final BookRepo bookRepo;
     private final SubjectRepo subjectRepo;
     private final FacultySubjectRepo facultySubjectRepo;
-    private final FacultyRepo facultyRepo;
     private final AttachmentRepo attachmentRepo;
     private final ShelfRepo shelfRepo;
+    private final BookReportService bookReportService;
+    private final BookBrowseService bookBrowseService;
 
     /* =========================
        CREATE
@@ -98,22 +106,83 @@ public class BooksController {
         );
     }
 
+    /* =========================
+       READ ALL (STREAMED NDJSON)
+    ========================= */
+    @GetMapping("/all/stream")
+    public void streamAll(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        bookReportService.writeBooksNdjson(response.getOutputStream(), this::toDTO);
+    }
 
 
     @GetMapping
-    public ResponseEntity<Page<BookDTO>> getAll(
+    public ResponseEntity<?> getAll(
+            @RequestParam(defaultValue = "") String q,
             @RequestParam(defaultValue = "") String title,
             @RequestParam(defaultValue = "") String author,
             @RequestParam(defaultValue = "") String publisher,
-            @RequestParam(required = false) Integer subjectId,
+            // Ro‘yxatli filtrlar: ?bookType=1&bookType=2 yoki ?bookType=1,2 — qiymatlardan biri
+            @RequestParam(required = false) List<Integer> subjectId,
+            @RequestParam(required = false) List<Integer> bookType,
+            @RequestParam(required = false) List<Integer> shelfId,
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) Boolean inLibrary,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> result = bookRepo
-                .findAllByTitleAuthorPublisherAndSubject(title, author, publisher, subjectId, pageable)
-                .map(this::toDTO);                           // ← добавить .map(this::toDTO)
-        return ResponseEntity.ok(result);
+        if (page < 0 || size < 1 || size > BookBrowseService.MAX_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body("page must be >= 0 and size between 1 and " + BookBrowseService.MAX_SIZE);
+        }
+        BookFilter filter = new BookFilter(q, title, author, publisher, subjectId, bookType, shelfId, genre, inLibrary);
+        BookBrowseService.Result result = bookBrowseService.browse(filter, page, size, facets);
+        List<BookDTO> content = bookRepo.findAllWithDetailsInOrder(result.ids())
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        if (!facets) {
+            return ResponseEntity.ok(new PageImpl<>(content, PageRequest.of(page, size), result.total()));
+        }
+        return ResponseEntity.ok(FacetedPageDTO.<BookDTO>builder()
+                .content(content)
+                .totalElements(result.total())
+                .page(page)
+                .size(size)
+                .facets(result.facets())
+                .build());
+    }
+
+
+    /* =========================
+       INFINITE SCROLL (KEYSET)
+    ========================= */
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scroll(
+            @RequestParam(defaultValue = "") String title,
+            @RequestParam(defaultValue = "") String author,
+            @RequestParam(defaultValue = "") String publisher,
+            @RequestParam(required = false) Integer subjectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        if (size < 1 || size > CursorPageDTO.MAX_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + CursorPageDTO.MAX_SIZE);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Book> rows = bookRepo.findPageAfter(
+                title, author, publisher, subjectId,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                size + 1);
+        Long total = withTotal
+                ? bookRepo.countByTitleAuthorPublisherAndSubject(title, author, publisher, subjectId)
+                : null;
+        return ResponseEntity.ok(CursorPageDTO.of(
+                rows, size, b -> new KeysetCursor(b.getCreatedAt(), b.getId()), this::toDTO, total));
     }
 
 
@@ -152,7 +221,7 @@ public class BooksController {
             resolvedKurs = kurs; // Use the provided kurs parameter if no facultyId
         }
 
-        List<BookDTO> list = bookRepo.findBySubjectId(subjectId)
+        List<BookDTO> list = bookRepo.findAllWithDetailsBySubject_Id(subjectId)
                 .stream()
             .map(book -> toDTO(book, resolvedKurs))
                 .collect(Collectors.toList());
@@ -177,6 +246,7 @@ public class BooksController {
     ========================= */
     @GetMapping("/search")
     public ResponseEntity<Page<BookDTO>> search(
+            @RequestParam(defaultValue = "") String q,
             @RequestParam(defaultValue = "") String title,
             @RequestParam(defaultValue = "") String author,
             @RequestParam(defaultValue = "") String publisher,
@@ -184,8 +254,13 @@ public class BooksController {
             @RequestParam(defaultValue = "10") int size
     ) {
 
-        Page<Book> books = bookRepo.findAllByTitleAuthorPublisher(
-                title, author, publisher, PageRequest.of(page, size));
+        String tsQuery = SearchQueries.toPrefixTsQuery(q);
+        if (!tsQuery.isEmpty()) {
+            return ResponseEntity.ok(searchText(q, tsQuery, null, PageRequest.of(page, size)));
+        }
+
+        Page<Book> books = bookRepo.findAllByTitleAuthorPublisherAndSubject(
+                title, author, publisher, null, PageRequest.of(page, size));
 
         return ResponseEntity.ok(books.map(this::toDTO));
     }
@@ -362,6 +437,19 @@ public class BooksController {
         return findOrCreateShelf(dto.getShelf());
     }
 
+    // Full-text first; when it finds nothing (typos, Cyrillic input) the trigram search over search_key
+    private Page<BookDTO> searchText(String q, String tsQuery, Integer subjectId, Pageable pageable) {
+        Page<Integer> ids = bookRepo.searchFullTextIds(tsQuery, subjectId, pageable);
+        if (ids.getTotalElements() == 0) {
+            ids = bookRepo.searchFuzzyIds(SearchQueries.toSearchKey(q), subjectId, pageable);
+        }
+        List<BookDTO> content = bookRepo.findAllWithDetailsInOrder(ids.getContent())
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
     private BookDTO toDTO(Book book) {
         return toDTO(book, null);
     }
@@ -445,95 +533,17 @@ public class BooksController {
 
 
     @GetMapping("/hisobot")
-    public ResponseEntity<byte[]> getHisobot() {
+    public void getHisobot(HttpServletResponse response) throws IOException {
+        response.setHeader("Content-Disposition", "attachment; filename=books_report.xlsx");
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         try {
-            Workbook workbook = new XSSFWorkbook();
-            Sheet sheet = workbook.createSheet("Books Report");
-
-            // ===== HEADER STYLE =====
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // ===== HEADER ROW =====
-            Row header = sheet.createRow(0);
-            String[] headers = {
-                    "№",
-                    "Adabiyot nomi",
-                    "Muallif",
-                    "Nashriyot",
-                    "Adabiyot turi",
-                    "Silka",
-                    "Yo'nalish",
-                    "Fan",
-                    "Kutubxonada bor",
-                    "Soni"
-            };
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = header.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            int rowIdx = 1;
-            int counter = 1;
-
-            List<Faculty> faculties = facultyRepo.findAll();
-
-            for (Faculty faculty : faculties) {
-
-                List<FacultySubject> facultySubjects =
-                        facultySubjectRepo.findAllSubjectsByFacultyId(faculty.getId());
-
-                for (FacultySubject facultySubject : facultySubjects) {
-
-                    Subject subject = facultySubject.getSubject();
-                    List<Book> books = bookRepo.findBySubjectId(subject.getId());
-
-                    for (Book book : books) {
-                        Row row = sheet.createRow(rowIdx++);
-
-                        row.createCell(0).setCellValue(counter++);
-                        row.createCell(1).setCellValue(book.getName());
-                        row.createCell(2).setCellValue(book.getAuthor());
-                        row.createCell(3).setCellValue(book.getPublisher());
-                        row.createCell(4).setCellValue(book.getGenre());
-                        row.createCell(5).setCellValue("https://library.bxu.uz/book/"+book.getId());
-                        row.createCell(6).setCellValue(faculty.getName());
-                        row.createCell(7).setCellValue(subject.getName());
-
-                        // ===== NEW COLUMNS =====
-                        row.createCell(8).setCellValue(
-                                Boolean.TRUE.equals(book.getIsHaveLibrary()) ? "Ha" : "Yo‘q"
-                        );
-
-                        row.createCell(9).setCellValue(
-                                book.getLibraryCount() != null ? book.getLibraryCount() : 0
-                        );
-                    }
-                }
-            }
-
-            // ===== AUTO SIZE =====
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            // ===== WRITE TO BYTE ARRAY =====
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            workbook.write(out);
-            workbook.close();
-
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=books_report.xlsx")
-                    .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                    .body(out.toByteArray());
-
+            bookReportService.writeHisobot(response.getOutputStream());
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -1,18 +1,15 @@
 package com.example.backend.Controller;
 
-import jakarta.servlet.http.HttpServletResponse;
+import com.example.backend.Services.ImageCacheService.StaticImageCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,33 +17,29 @@ import java.nio.file.Paths;
 @RequestMapping("/api/v1/image")
 public class GetImagesController {
 
-    private final ResourceLoader resourceLoader;
+    private final StaticImageCache staticImageCache;
 
     @GetMapping("/{name}")
-    public ResponseEntity<?> getImage(@PathVariable String name) {
-        System.out.println(name);
+    public ResponseEntity<?> getImage(@PathVariable String name, WebRequest webRequest) {
         try {
-            // Base folder containing images
-//            Path imagePath = Paths.get("C:\\Users\\Akobir\\Desktop\\library\\front\\img").resolve(name);
-            Path imagePath = Paths.get("./libraryImages").resolve(name);
-
-            if (!Files.exists(imagePath)) {
+            // Base folder containing images: ./libraryImages (served from memory, see StaticImageCache)
+            StaticImageCache.Image image = staticImageCache.get(name);
+            if (image == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Image not found");
             }
-
-            // Load image as a resource
-            Resource imageResource = resourceLoader.getResource("file:" + imagePath.toAbsolutePath());
-            if (!imageResource.exists()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Image not found");
+            if (webRequest.checkNotModified(image.eTag(), image.lastModified())) {
+                return null;
             }
 
-            String contentType = Files.probeContentType(imagePath);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, contentType)
-                    .body(imageResource);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(image.contentType()))
+                    .eTag(image.eTag())
+                    .lastModified(image.lastModified());
+            if (image.content() == null) {
+                return response.body(new FileSystemResource(image.path()));
+            }
+            return response.body(image.content());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving image");
@@ -5,7 +5,11 @@ import com.example.backend.Entity.Attachment;
 import com.example.backend.Entity.Ilmiy;
 import com.example.backend.Repository.AttachmentRepo;
 import com.example.backend.Repository.IlmiyRepo;
+import com.example.backend.Services.SearchService.SearchQueries;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -65,6 +69,23 @@ public class IlmiyController {
         return ResponseEntity.ok(ilmiyRepo.findAll());
     }
 
+    /* =========================
+        SEARCH (mavzu, ixtisosligi, muallif; lotin/kirill, xatoga chidamli)
+    ========================= */
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<Ilmiy>> search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        String key = SearchQueries.toSearchKey(q);
+        if (key.isEmpty()) {
+            return ResponseEntity.ok(ilmiyRepo.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"))));
+        }
+        return ResponseEntity.ok(ilmiyRepo.searchFuzzy(key, PageRequest.of(page, size)));
+    }
+
     /* =========================
         READ BY ID
     ========================= */
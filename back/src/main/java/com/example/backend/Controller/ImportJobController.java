@@ -0,0 +1,51 @@
+package com.example.backend.Controller;
+
+import com.example.backend.DTO.ImportJobDTO;
+import com.example.backend.Services.CatalogImportService.ImportJob;
+import com.example.backend.Services.CatalogImportService.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin
+@RequestMapping("/api/v1/import-jobs")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    @GetMapping
+    public ResponseEntity<List<ImportJobDTO>> getAll() {
+        return ResponseEntity.ok(importJobService.findAll().stream().map(ImportJobDTO::of).toList());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getOne(@PathVariable UUID id) {
+        return importJobService.find(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(ImportJobDTO.of(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /* =========================
+       LIVE PROGRESS (SSE)
+    ========================= */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<SseEmitter> events(@PathVariable UUID id) {
+        Optional<ImportJob> job = importJobService.find(id);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(importJobService.subscribe(job.get()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable UUID id) {
+        return importJobService.cancel(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(ImportJobDTO.of(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
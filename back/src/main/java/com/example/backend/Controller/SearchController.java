@@ -0,0 +1,74 @@
+package com.example.backend.Controller;
+
+import com.example.backend.DTO.SearchResultDTO;
+import com.example.backend.Services.SearchService.AutocompleteService;
+import com.example.backend.Services.SearchService.CatalogSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin
+@RequestMapping("/api/v1/search")
+public class SearchController {
+
+    private static final int MAX_SIZE = 100;
+
+    private final CatalogSearchService catalogSearchService;
+    private final AutocompleteService autocompleteService;
+
+    // Kitob, badiiy, audio va ilmiy ishlar bo‘yicha bitta qidiruv; ?types=book,audio bilan cheklash mumkin
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        if (page < 0 || size < 1 || size > MAX_SIZE) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and " + MAX_SIZE);
+        }
+        Set<CatalogSearchService.Type> selected = EnumSet.allOf(CatalogSearchService.Type.class);
+        if (types != null && !types.isEmpty()) {
+            selected = EnumSet.noneOf(CatalogSearchService.Type.class);
+            try {
+                for (String type : types) {
+                    selected.add(CatalogSearchService.Type.parse(type));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("types must be book, badiiy, audio or ilmiy");
+            }
+        }
+        SearchResultDTO result = catalogSearchService.search(q, selected, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    // Qidiruv maydoni uchun takliflar (xotiradan): ?fields=name,author,publisher,subject
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > AutocompleteService.MAX_LIMIT) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + AutocompleteService.MAX_LIMIT);
+        }
+        Set<AutocompleteService.Field> selected = EnumSet.allOf(AutocompleteService.Field.class);
+        if (fields != null && !fields.isEmpty()) {
+            selected = EnumSet.noneOf(AutocompleteService.Field.class);
+            try {
+                for (String field : fields) {
+                    selected.add(AutocompleteService.Field.parse(field));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("fields must be name, author, publisher or subject");
+            }
+        }
+        return ResponseEntity.ok(autocompleteService.complete(q, selected, limit));
+    }
+}
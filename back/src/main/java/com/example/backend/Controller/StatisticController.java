@@ -3,10 +3,10 @@ package com.example.backend.Controller;
 import com.example.backend.Entity.EducationType;
 import com.example.backend.Entity.Faculty;
 import com.example.backend.Repository.*;
+import com.example.backend.Services.StatisticService.StatisticService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -21,67 +21,12 @@ public class StatisticController {
     private final EducationTypeRepo educationTypeRepo;
     private final BookRepo bookRepo;
     private final FacultyRepo facultyRepo;
-    private final SubjectRepo subjectRepo;
     private final FacultySubjectRepo facultySubjectRepo;
-    private final BadiiyRepo badiiyRepo;
-    private final AudioRepo audioRepo;
+    private final StatisticService statisticService;
 
     @GetMapping
     public Map<String, Object> getStatistics() {
-
-        Map<String, Object> stats = new HashMap<>();
-
-        /* =====================
-           BASIC COUNTS
-        ===================== */
-        stats.put("booksCount", bookRepo.count());
-        stats.put("booksLibraryCount", bookRepo.bookLibraryCount());
-        stats.put("facultiesCount", facultyRepo.count());
-        stats.put("subjectsCount", subjectRepo.count());
-        stats.put("facultySubjectsCount", facultySubjectRepo.count());
-        stats.put("badiiyCount", badiiyRepo.count());
-        stats.put("audioCount", audioRepo.count());
-        stats.put("asosiyAdabiyotCount", bookRepo.countByBookType(1));
-        stats.put("qoshimchaAdabiyotCount", bookRepo.countByBookType(2));
-        stats.put("tayanchdaYoqCount", bookRepo.countByBookType(3));
-        /* =====================
-           BOOK STATISTICS
-        ===================== */
-        stats.put(
-                "last7DaysBooks",
-                bookRepo.countBooksAfter(LocalDateTime.now().minusDays(7))
-        );
-
-        stats.put(
-                "booksBySubject",
-                bookRepo.countBooksBySubject()
-        );
-
-        /* =====================
-           FACULTY STATISTICS
-        ===================== */
-        stats.put(
-                "facultiesByEducationType",
-                facultyRepo.countByEducationType()
-        );
-
-        /* =====================
-           SUBJECT STATISTICS
-        ===================== */
-        stats.put(
-                "unassignedSubjects",
-                subjectRepo.countUnassignedSubjects()
-        );
-
-        /* =====================
-           FACULTY-SUBJECT STATISTICS
-        ===================== */
-        stats.put(
-                "subjectsPerFaculty",
-                facultySubjectRepo.countSubjectsPerFaculty()
-        );
-
-        return stats;
+        return statisticService.getStatistics();
     }
 
 
@@ -0,0 +1,51 @@
+package com.example.backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    // Largest page the scroll endpoints hand out
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    // null when there are no more rows
+    private String nextCursor;
+    // only filled when the client asks for it
+    private Long total;
+
+    /**
+     * Builds a page from {@code size + 1} fetched rows: the extra row only tells
+     * whether another page exists and is not returned.
+     */
+    public static <E, T> CursorPageDTO<T> of(
+            List<E> rows,
+            int size,
+            Function<E, KeysetCursor> cursorOf,
+            Function<E, T> mapper,
+            Long total
+    ) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return CursorPageDTO.<T>builder()
+                .content(pageRows.stream().map(mapper).toList())
+                .size(pageRows.size())
+                .nextCursor(nextCursor)
+                .total(total)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetedPageDTO<T> {
+    private List<T> content;
+    private long totalElements;
+    private int page;
+    private int size;
+    // facet -> value -> matching rows; only filled when the client asks for it
+    private Map<String, Map<String, Long>> facets;
+}
@@ -0,0 +1,55 @@
+package com.example.backend.DTO;
+
+import com.example.backend.Services.CatalogImportService.ImportJob;
+import com.example.backend.Services.CatalogImportService.ImportProgress;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportJobDTO {
+
+    private UUID id;
+    private String catalog;
+    private String description;
+    private String status;
+    private String message;
+
+    private long filesScanned;
+    private long rowsInserted;
+    private long rowsUpdated;
+    private long rowsDeleted;
+    private long errors;
+    private double rowsPerSecond;
+    private long elapsedMillis;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static ImportJobDTO of(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+        return ImportJobDTO.builder()
+                .id(job.getId())
+                .catalog(job.getCatalog().name())
+                .description(job.getDescription())
+                .status(job.getStatus().name())
+                .message(job.getMessage())
+                .filesScanned(progress.getFilesScanned().get())
+                .rowsInserted(progress.getRowsInserted().get())
+                .rowsUpdated(progress.getRowsUpdated().get())
+                .rowsDeleted(progress.getRowsDeleted().get())
+                .errors(progress.getErrors().get())
+                .rowsPerSecond(Math.round(progress.rowsPerSecond() * 10) / 10.0)
+                .elapsedMillis(progress.elapsedMillis())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SearchHitDTO {
+    // BOOK, BADIIY, AUDIO or ILMIY; id is the row id in that catalog
+    private String type;
+    private Integer id;
+    private String title;
+    private String author;
+    private UUID imageId;
+    private LocalDateTime createdAt;
+    private double score;
+}
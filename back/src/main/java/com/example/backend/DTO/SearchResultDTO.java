@@ -0,0 +1,23 @@
+package com.example.backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SearchResultDTO {
+    private List<SearchHitDTO> content;
+    // Matches per type, over all types even when the page is limited to some
+    private Map<String, Long> counts;
+    // Matches of the requested types
+    private long total;
+    private int page;
+    private int size;
+}
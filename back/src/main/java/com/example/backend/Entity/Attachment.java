@@ -1,5 +1,6 @@
 package com.example.backend.Entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
@@ -7,15 +8,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.util.FileCopyUtils;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * An uploaded or imported file. Content-addressed attachments point at an
+ * {@link AttachmentBlob} through {@code blobHash}; the others live at
+ * backend/files&lt;prefix&gt;/&lt;name&gt;, where the prefix is /sharded/&lt;ab&gt;/&lt;cd&gt; for
+ * sharded copies. Use AttachmentStorage to locate the bytes.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -28,20 +30,7 @@ public class Attachment {
     private UUID id;
     private String prefix;
     private String name;
-
-    public static Attachment createAttachment(MultipartFile photo, String prefix) throws IOException {
-        Attachment attachment = null;
-        if (photo != null && !photo.isEmpty()) {
-            UUID id = UUID.randomUUID();
-            String fileName = id + "_" + photo.getOriginalFilename();
-            String filePath = "backend/files" + prefix + "/" + fileName;
-            File file = new File(filePath);
-            file.getParentFile().mkdirs();
-            try (OutputStream outputStream = new FileOutputStream(file)) {
-                FileCopyUtils.copy(photo.getInputStream(), outputStream);
-            }
-            attachment = new Attachment(id, prefix, fileName);
-        }
-        return attachment;
-    }
+    @Column(length = 64)
+    private String blobHash;
+    private LocalDateTime createdAt;
 }
@@ -0,0 +1,31 @@
+package com.example.backend.Entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * File content stored once under its SHA-256, shared by every attachment with the same bytes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "attachment_blob")
+public class AttachmentBlob {
+    @Id
+    @Column(length = 64)
+    private String hash;
+    private Long size;
+    // Number of attachment rows pointing at this blob
+    private Integer refCount;
+    private LocalDateTime createdAt;
+}
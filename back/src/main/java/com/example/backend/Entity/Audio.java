@@ -1,5 +1,8 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
+import com.example.backend.Services.SearchService.SearchQueries;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +16,7 @@ import java.time.LocalDateTime;
 @Data
 @Table(name = "audio")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Audio {
     @Id
@@ -28,6 +32,11 @@ public class Audio {
     @ManyToOne
     private Attachment audio;
     @ManyToOne Attachment image;
+
+    // Folded name + author + publisher for fuzzy search (trigram-indexed, see SearchIndexInitializer)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String searchKey;
     public Audio(String name, String description, LocalDateTime createdAt, String author, String genre, String publisher, String path) {
         this.name = name;
         this.description = description;
@@ -38,4 +47,9 @@ public class Audio {
         this.path = path;
     }
 
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchQueries.toSearchKey(name, author, publisher);
+    }
 }
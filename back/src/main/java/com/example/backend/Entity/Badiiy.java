@@ -1,5 +1,8 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
+import com.example.backend.Services.SearchService.SearchQueries;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +16,7 @@ import java.time.LocalDateTime;
 @Data
 @Table(name = "badiiy")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Badiiy {
     @Id
@@ -30,6 +34,11 @@ public class Badiiy {
     @ManyToOne
     private Attachment pdf;
     @ManyToOne Attachment image;
+
+    // Folded name + author + publisher for fuzzy search (trigram-indexed, see SearchIndexInitializer)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String searchKey;
     public Badiiy(String name, String description, LocalDateTime createdAt, String author, String genre, String publisher, String path) {
         this.name = name;
         this.description = description;
@@ -40,5 +49,9 @@ public class Badiiy {
         this.path = path;
     }
 
-
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchQueries.toSearchKey(name, author, publisher);
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
+import com.example.backend.Services.SearchService.SearchQueries;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +18,7 @@ import java.time.LocalDateTime;
         name = "book"
 )
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Book {
     @Id
@@ -55,6 +59,11 @@ public class Book {
     @JoinColumn(name = "subject_id", nullable = false) // Foreign key to Subject
     private Subject subject;
 
+    // Folded name + author + publisher for fuzzy search (trigram-indexed, see SearchIndexInitializer)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String searchKey;
+
     public Book(String name, String description, LocalDateTime createdAt, String author, String publisher, String genre, Subject subject, String path, Attachment image, Attachment pdf) {
         this.name = name;
         this.description = description;
@@ -67,4 +76,10 @@ public class Book {
         this.image= image;
         this.pdf = pdf;
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchQueries.toSearchKey(name, author, publisher);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 @Data
 @Table(name = "faculty")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Faculty {
     @Id
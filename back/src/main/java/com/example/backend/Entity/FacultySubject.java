@@ -1,5 +1,6 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.util.List;
 @Data
 @Table(name = "faculty_subject")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class FacultySubject {
     @Id
@@ -1,5 +1,8 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
+import com.example.backend.Services.SearchService.SearchQueries;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +16,7 @@ import java.time.LocalDateTime;
 @Data
 @Table(name = "ilmiy")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Ilmiy {
     @Id
@@ -27,6 +31,11 @@ public class Ilmiy {
     private Integer libraryCount;
     @ManyToOne
     private Attachment pdf;
+
+    // Folded mavzu + ixtisosligi + author for fuzzy search (trigram-indexed, see SearchIndexInitializer)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String searchKey;
     public Ilmiy(String mavzu, String ixtisosligi, LocalDateTime createdAt, String author, String genre) {
         this.mavzu = mavzu;
         this.ixtisosligi = ixtisosligi;
@@ -35,5 +44,9 @@ public class Ilmiy {
         this.genre = genre;
     }
 
-
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchQueries.toSearchKey(mavzu, ixtisosligi, author);
+    }
 }
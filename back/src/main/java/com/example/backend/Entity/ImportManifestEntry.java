@@ -0,0 +1,56 @@
+package com.example.backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One file the folder import has seen: where it was, what it looked like and which
+ * row it became. A deleted entry is a tombstone for a file that has disappeared.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(
+        name = "import_manifest",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"kind", "path"})
+)
+@Entity
+@Builder
+public class ImportManifestEntry {
+
+    public enum Kind {
+        BOOK, YONALISH, BADIIY, AUDIO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(nullable = false, length = 1024)
+    private String path;
+
+    private Long size;
+    // File.lastModified(), epoch millis
+    private Long modifiedAt;
+    @Column(length = 64)
+    private String contentHash;
+
+    // book / badiiy / audio id; subject id for YONALISH
+    private Integer entityId;
+    private boolean deleted;
+    private LocalDateTime syncedAt;
+
+    public boolean sameFile(long size, long modifiedAt) {
+        return !deleted && this.size != null && this.size == size
+                && this.modifiedAt != null && this.modifiedAt == modifiedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.backend.Entity;
 
+import com.example.backend.Services.CatalogChangeService.CatalogEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 @Data
 @Table(name = "subject")
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Builder
 public class Subject {
     @Id
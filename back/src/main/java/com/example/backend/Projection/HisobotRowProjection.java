@@ -0,0 +1,24 @@
+package com.example.backend.Projection;
+
+/**
+ * One flat (faculty, subject, book) row of the books report.
+ */
+public interface HisobotRowProjection {
+    String getFacultyName();
+
+    String getSubjectName();
+
+    Integer getBookId();
+
+    String getName();
+
+    String getAuthor();
+
+    String getPublisher();
+
+    String getGenre();
+
+    Boolean getIsHaveLibrary();
+
+    Integer getLibraryCount();
+}
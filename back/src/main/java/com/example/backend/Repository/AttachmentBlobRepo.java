@@ -0,0 +1,39 @@
+package com.example.backend.Repository;
+
+import com.example.backend.Entity.AttachmentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AttachmentBlobRepo extends JpaRepository<AttachmentBlob, String> {
+
+    // Yangi blob yoki mavjudiga yana bitta havola
+    @Modifying
+    @Query(value = """
+        INSERT INTO attachment_blob (hash, size, ref_count, created_at)
+        VALUES (:hash, :size, 1, now())
+        ON CONFLICT (hash) DO UPDATE SET ref_count = attachment_blob.ref_count + 1
+        """, nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size);
+
+    // O‘chirilgan attachment havolasini qaytarish
+    @Modifying
+    @Query(value = "UPDATE attachment_blob SET ref_count = ref_count - 1 WHERE hash = :hash", nativeQuery = true)
+    int release(@Param("hash") String hash);
+
+    // Faqat hech bir attachment ko‘rsatmayotgan bo‘lsa o‘chiriladi
+    @Modifying
+    @Query(value = """
+        DELETE FROM attachment_blob b
+        WHERE b.hash = :hash
+          AND NOT EXISTS (SELECT 1 FROM attachment a WHERE a.blob_hash = b.hash)
+        """, nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.refCount <= 0 AND b.createdAt < :before")
+    List<AttachmentBlob> findUnreferencedBefore(@Param("before") LocalDateTime before);
+}
@@ -3,8 +3,40 @@ package com.example.backend.Repository;
 
 import com.example.backend.Entity.Attachment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface AttachmentRepo extends JpaRepository<Attachment, UUID> {
-}
\ No newline at end of file
+
+    // Hech bir kitob, badiiy, audio yoki ilmiy ishga biriktirilmagan blob fayllar
+    @Query(value = """
+        SELECT * FROM attachment a
+        WHERE a.blob_hash IS NOT NULL
+          AND a.created_at < :before
+          AND NOT EXISTS (SELECT 1 FROM book b WHERE b.image_id = a.id OR b.pdf_id = a.id)
+          AND NOT EXISTS (SELECT 1 FROM badiiy b WHERE b.image_id = a.id OR b.pdf_id = a.id)
+          AND NOT EXISTS (SELECT 1 FROM audio au WHERE au.image_id = a.id OR au.audio_id = a.id)
+          AND NOT EXISTS (SELECT 1 FROM ilmiy i WHERE i.pdf_id = a.id)
+        """, nativeQuery = true)
+    List<Attachment> findOrphanedBlobAttachments(@Param("before") LocalDateTime before);
+
+    // Blob'siz fayllardan hali bazada borlari (hosila papkalarni tozalash uchun)
+    @Query("SELECT a.id FROM Attachment a WHERE a.blobHash IS NULL AND a.id IN :ids")
+    List<UUID> findExistingWithoutBlob(@Param("ids") Collection<UUID> ids);
+
+    // Blob'siz va hali /sharded/ ga ko‘chirilmagan fayllar, id bo‘yicha keyset sahifalash
+    @Query(value = """
+        SELECT * FROM attachment a
+        WHERE a.blob_hash IS NULL
+          AND (a.prefix IS NULL OR a.prefix NOT LIKE '/sharded/%')
+          AND a.id > :afterId
+        ORDER BY a.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Attachment> findUnshardedAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+}
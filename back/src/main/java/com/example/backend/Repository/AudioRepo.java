@@ -2,9 +2,14 @@ package com.example.backend.Repository;
 
 import com.example.backend.Entity.Audio;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface AudioRepo extends JpaRepository<Audio, Integer> {
 
@@ -20,4 +25,75 @@ public interface AudioRepo extends JpaRepository<Audio, Integer> {
             String publisher,
             Pageable pageable
     );
+
+    @Query("""
+        SELECT a FROM Audio a WHERE
+        (:title = '' OR LOWER(a.name) LIKE LOWER(CONCAT('%', :title, '%'))) AND
+        (:author = '' OR LOWER(a.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND
+        (:publisher = '' OR LOWER(a.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+        ORDER BY a.createdAt DESC, a.id DESC
+    """)
+    List<Audio> findFirstPage(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher,
+            Pageable limit
+    );
+
+    // (created_at, id) qator taqqoslashi — indeks diapazoni sifatida ishlaydi
+    @Query(value = """
+        SELECT * FROM audio a
+        WHERE (a.created_at, a.id) < (:afterCreatedAt, :afterId)
+          AND (:title = '' OR LOWER(a.name) LIKE LOWER(CONCAT('%', :title, '%')))
+          AND (:author = '' OR LOWER(a.author) LIKE LOWER(CONCAT('%', :author, '%')))
+          AND (:publisher = '' OR LOWER(a.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+        ORDER BY a.created_at DESC, a.id DESC
+        LIMIT :limit
+        """,
+            nativeQuery = true)
+    List<Audio> findAfter(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Up to {@code limit} rows after the cursor (or from the newest when it is null), newest first.
+     */
+    default List<Audio> findPageAfter(String title, String author, String publisher,
+                                      LocalDateTime afterCreatedAt, Integer afterId, int limit) {
+        if (afterCreatedAt == null) {
+            return findFirstPage(title, author, publisher, PageRequest.of(0, limit));
+        }
+        return findAfter(title, author, publisher, afterCreatedAt, afterId, limit);
+    }
+
+    @Query("""
+        SELECT COUNT(a) FROM Audio a WHERE
+        (:title = '' OR LOWER(a.name) LIKE LOWER(CONCAT('%', :title, '%'))) AND
+        (:author = '' OR LOWER(a.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND
+        (:publisher = '' OR LOWER(a.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+    """)
+    long countByTitleAuthorPublisher(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher
+    );
+
+    // Xatoga chidamli qidiruv: search_key (trigram GIN) bo‘yicha, o‘xshashlik tartibida.
+    // key — SearchQueries.toSearchKey natijasi
+    @Query(value = """
+        SELECT * FROM audio a
+        WHERE a.search_key LIKE CONCAT('%', :key, '%') OR :key <% a.search_key
+        ORDER BY word_similarity(:key, a.search_key) DESC, a.created_at DESC, a.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM audio a
+        WHERE a.search_key LIKE CONCAT('%', :key, '%') OR :key <% a.search_key
+        """,
+            nativeQuery = true)
+    Page<Audio> searchFuzzy(@Param("key") String key, Pageable pageable);
 }
@@ -2,9 +2,14 @@ package com.example.backend.Repository;
 
 import com.example.backend.Entity.Badiiy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface BadiiyRepo extends JpaRepository<Badiiy, Integer> {
 
@@ -15,4 +20,55 @@ public interface BadiiyRepo extends JpaRepository<Badiiy, Integer> {
     Page<Badiiy> findAllByTitleAuthorPublisher(
             String query,
             Pageable pageable);
+
+    @Query("SELECT b FROM Badiiy b WHERE " +
+            "(:query = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
+            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Badiiy> findFirstPage(
+            @Param("query") String query,
+            Pageable limit);
+
+    // (created_at, id) qator taqqoslashi — indeks diapazoni sifatida ishlaydi
+    @Query(value = "SELECT * FROM badiiy b " +
+            "WHERE (b.created_at, b.id) < (:afterCreatedAt, :afterId) " +
+            "AND (:query = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
+            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+            "ORDER BY b.created_at DESC, b.id DESC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Badiiy> findAfter(
+            @Param("query") String query,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit);
+
+    /**
+     * Up to {@code limit} rows after the cursor (or from the newest when it is null), newest first.
+     */
+    default List<Badiiy> findPageAfter(String query, LocalDateTime afterCreatedAt, Integer afterId, int limit) {
+        if (afterCreatedAt == null) {
+            return findFirstPage(query, PageRequest.of(0, limit));
+        }
+        return findAfter(query, afterCreatedAt, afterId, limit);
+    }
+
+    @Query("SELECT COUNT(b) FROM Badiiy b WHERE " +
+            "(:query = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
+            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')))")
+    long countByTitleAuthor(@Param("query") String query);
+
+    // Xatoga chidamli qidiruv: search_key (trigram GIN) bo‘yicha, o‘xshashlik tartibida.
+    // key — SearchQueries.toSearchKey natijasi
+    @Query(value = """
+        SELECT * FROM badiiy b
+        WHERE b.search_key LIKE CONCAT('%', :key, '%') OR :key <% b.search_key
+        ORDER BY word_similarity(:key, b.search_key) DESC, b.created_at DESC, b.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM badiiy b
+        WHERE b.search_key LIKE CONCAT('%', :key, '%') OR :key <% b.search_key
+        """,
+            nativeQuery = true)
+    Page<Badiiy> searchFuzzy(@Param("key") String key, Pageable pageable);
 }
@@ -2,15 +2,25 @@ package com.example.backend.Repository;
 
 import com.example.backend.Entity.Book;
 import com.example.backend.Entity.Subject;
+import com.example.backend.Projection.HisobotRowProjection;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepo extends JpaRepository<Book, Integer> {
 
@@ -39,13 +49,55 @@ public interface BookRepo extends JpaRepository<Book, Integer> {
     @Query("SELECT COUNT(b) FROM Book b WHERE b.createdAt >= :date")
     long countBooksAfter(LocalDateTime date);
 
+    // Avtoto‘ldirish uchun: id, nom, muallif, nashriyot
+    @Query("SELECT b.id, b.name, b.author, b.publisher FROM Book b")
+    List<Object[]> findAllNamesAuthorsPublishers();
+
+    // Filtr indeksi uchun: id, fan, tur, javon, janr, kutubxonada bormi
+    @Query("""
+        SELECT b.id, s.id, b.bookType, sh.id, b.genre, b.isHaveLibrary
+        FROM Book b
+        JOIN b.subject s
+        LEFT JOIN b.shelf sh
+    """)
+    List<Object[]> findAllFilterAttributes();
+
     // Fan bo‘yicha kitoblar soni
     @Query("SELECT b.subject.id, COUNT(b) FROM Book b GROUP BY b.subject.id")
     List<Object[]> countBooksBySubject();
 
+    // Hisobot uchun: fakultet → fan → kitob qatorlari bitta so‘rovda, kursor orqali
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("""
+        SELECT f.name AS facultyName,
+               s.name AS subjectName,
+               b.id AS bookId,
+               b.name AS name,
+               b.author AS author,
+               b.publisher AS publisher,
+               b.genre AS genre,
+               b.isHaveLibrary AS isHaveLibrary,
+               b.libraryCount AS libraryCount
+        FROM FacultySubject fs
+        JOIN fs.faculty f
+        JOIN fs.subject s
+        JOIN Book b ON b.subject = s
+        ORDER BY f.id, fs.id, b.id
+    """)
+    Stream<HisobotRowProjection> streamHisobotRows();
+
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
     @Query("select b from Book b order by b.createdAt desc")
     List<Book> findAllOrderByCreatedAt();
 
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select b from Book b order by b.createdAt desc")
+    Stream<Book> streamAllOrderByCreatedAt();
+
 
     @Query("""
         SELECT fs.faculty.id,
@@ -95,6 +147,7 @@ public interface BookRepo extends JpaRepository<Book, Integer> {
     List<Book> findAllByShelf_Id(Integer shelfId);
 
 
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
     @Query("""
    SELECT b FROM Book b
    WHERE (:title = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :title, '%')))
@@ -111,4 +164,135 @@ public interface BookRepo extends JpaRepository<Book, Integer> {
             Pageable pageable
     );
 
+    // To‘liq matnli qidiruv: search_vector (GIN) bo‘yicha, rank tartibida; faqat id'lar
+    @Query(value = """
+        SELECT b.id FROM book b
+        WHERE b.search_vector @@ to_tsquery('simple', :query)
+          AND (CAST(:subjectId AS integer) IS NULL OR b.subject_id = :subjectId)
+        ORDER BY ts_rank(b.search_vector, to_tsquery('simple', :query)) DESC, b.created_at DESC, b.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM book b
+        WHERE b.search_vector @@ to_tsquery('simple', :query)
+          AND (CAST(:subjectId AS integer) IS NULL OR b.subject_id = :subjectId)
+        """,
+            nativeQuery = true)
+    Page<Integer> searchFullTextIds(
+            @Param("query") String query,
+            @Param("subjectId") Integer subjectId,
+            Pageable pageable
+    );
+
+    // Xatoga chidamli qidiruv: search_key (trigram GIN) bo‘yicha, o‘xshashlik tartibida; faqat id'lar.
+    // key — SearchQueries.toSearchKey natijasi
+    @Query(value = """
+        SELECT b.id FROM book b
+        WHERE (b.search_key LIKE CONCAT('%', :key, '%') OR :key <% b.search_key)
+          AND (CAST(:subjectId AS integer) IS NULL OR b.subject_id = :subjectId)
+        ORDER BY word_similarity(:key, b.search_key) DESC, b.created_at DESC, b.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM book b
+        WHERE (b.search_key LIKE CONCAT('%', :key, '%') OR :key <% b.search_key)
+          AND (CAST(:subjectId AS integer) IS NULL OR b.subject_id = :subjectId)
+        """,
+            nativeQuery = true)
+    Page<Integer> searchFuzzyIds(
+            @Param("key") String key,
+            @Param("subjectId") Integer subjectId,
+            Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
+    List<Book> findAllWithDetailsByIdIn(Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
+    List<Book> findAllWithDetailsBySubject_Id(Integer subjectId);
+
+    /**
+     * Loads the given books with their associations in one query, keeping the order of {@code ids}.
+     */
+    default List<Book> findAllWithDetailsInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Integer, Book> byId = new HashMap<>();
+        for (Book book : findAllWithDetailsByIdIn(ids)) {
+            byId.put(book.getId(), book);
+        }
+        List<Book> ordered = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Book book = byId.get(id);
+            if (book != null) ordered.add(book);
+        }
+        return ordered;
+    }
+
+    // Keyset (seek) sahifalash: OFFSET va COUNT'siz, (createdAt, id) bo‘yicha.
+    // Birinchi sahifa
+    @EntityGraph(attributePaths = {"subject", "shelf", "image", "pdf"})
+    @Query("""
+   SELECT b FROM Book b
+   WHERE (:title = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :title, '%')))
+     AND (:author = '' OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%')))
+     AND (:publisher = '' OR LOWER(b.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+     AND (:subjectId IS NULL OR b.subject.id = :subjectId)
+   ORDER BY b.createdAt DESC, b.id DESC
+""")
+    List<Book> findFirstPage(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher,
+            @Param("subjectId") Integer subjectId,
+            Pageable limit
+    );
+
+    // Keyingi sahifalar: (created_at, id) qator taqqoslashi idx_book_created_at_id bo‘yicha
+    // indeks diapazoniga aylanadi, o‘tkazib yuborilgan yozuvlar o‘qilmaydi
+    @Query(value = """
+        SELECT b.id FROM book b
+        WHERE (b.created_at, b.id) < (:afterCreatedAt, :afterId)
+          AND (:title = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :title, '%')))
+          AND (:author = '' OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%')))
+          AND (:publisher = '' OR LOWER(b.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+          AND (CAST(:subjectId AS integer) IS NULL OR b.subject_id = :subjectId)
+        ORDER BY b.created_at DESC, b.id DESC
+        LIMIT :limit
+        """,
+            nativeQuery = true)
+    List<Integer> findIdsAfter(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher,
+            @Param("subjectId") Integer subjectId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Up to {@code limit} books after the cursor (or from the newest when it is null),
+     * newest first, with their associations loaded.
+     */
+    default List<Book> findPageAfter(String title, String author, String publisher, Integer subjectId,
+                                     LocalDateTime afterCreatedAt, Integer afterId, int limit) {
+        if (afterCreatedAt == null) {
+            return findFirstPage(title, author, publisher, subjectId, PageRequest.of(0, limit));
+        }
+        return findAllWithDetailsInOrder(
+                findIdsAfter(title, author, publisher, subjectId, afterCreatedAt, afterId, limit));
+    }
+
+    @Query("""
+   SELECT COUNT(b) FROM Book b
+   WHERE (:title = '' OR LOWER(b.name) LIKE LOWER(CONCAT('%', :title, '%')))
+     AND (:author = '' OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%')))
+     AND (:publisher = '' OR LOWER(b.publisher) LIKE LOWER(CONCAT('%', :publisher, '%')))
+     AND (:subjectId IS NULL OR b.subject.id = :subjectId)
+""")
+    long countByTitleAuthorPublisherAndSubject(
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("publisher") String publisher,
+            @Param("subjectId") Integer subjectId
+    );
+
 }
@@ -18,6 +18,8 @@ public interface FacultySubjectRepo extends JpaRepository<FacultySubject, Intege
 
     Optional<FacultySubject> findFirstByFaculty_IdAndSubject_Id(Integer facultyId, Integer subjectId);
 
+    List<FacultySubject> findAllBySubject_Id(Integer subjectId);
+
     // Jami bog‘lanishlar
     long count();
 
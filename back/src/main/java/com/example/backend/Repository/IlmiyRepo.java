@@ -1,6 +1,8 @@
 package com.example.backend.Repository;
 
 import com.example.backend.Entity.Ilmiy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,4 +30,18 @@ public interface IlmiyRepo extends JpaRepository<Ilmiy, Integer> {
             @Param("isHaveLibrary") Boolean isHaveLibrary,
             @Param("createdAt") LocalDate createdAt
     );
-}
\ No newline at end of file
+
+    // Xatoga chidamli qidiruv: search_key (trigram GIN) bo‘yicha, o‘xshashlik tartibida.
+    // key — SearchQueries.toSearchKey natijasi
+    @Query(value = """
+        SELECT * FROM ilmiy i
+        WHERE i.search_key LIKE CONCAT('%', :key, '%') OR :key <% i.search_key
+        ORDER BY word_similarity(:key, i.search_key) DESC, i.created_at DESC, i.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM ilmiy i
+        WHERE i.search_key LIKE CONCAT('%', :key, '%') OR :key <% i.search_key
+        """,
+            nativeQuery = true)
+    Page<Ilmiy> searchFuzzy(@Param("key") String key, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.example.backend.Repository;
+
+import com.example.backend.Entity.ImportManifestEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ImportManifestRepo extends JpaRepository<ImportManifestEntry, Long> {
+
+    List<ImportManifestEntry> findAllByKind(ImportManifestEntry.Kind kind);
+
+    boolean existsByKind(ImportManifestEntry.Kind kind);
+}
@@ -0,0 +1,98 @@
+package com.example.backend.Services.AttachmentService;
+
+import com.example.backend.Entity.Attachment;
+import com.example.backend.Repository.AttachmentRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves attachments stored under backend/files&lt;prefix&gt;/ into the sharded layout,
+ * a batch at a time: the files of a batch are moved first, then their rows are updated
+ * in one transaction. A row whose file is already at its sharded path (a run that stopped
+ * between the two steps) is just updated. Content-addressed attachments are not touched;
+ * their blobs are sharded already.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttachmentLayoutMigration {
+
+    // Smallest UUID in Postgres' ordering, where the keyset starts
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final AttachmentRepo attachmentRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public synchronized MigrationReport migrate(int batchSize) {
+        int moved = 0;
+        int missing = 0;
+        int failed = 0;
+        UUID after = FIRST;
+        while (true) {
+            List<Attachment> batch = attachmentRepo.findUnshardedAfter(after, batchSize);
+            if (batch.isEmpty()) break;
+
+            List<Attachment> updated = new ArrayList<>();
+            for (Attachment attachment : batch) {
+                after = attachment.getId();
+                Path source = AttachmentStorage.localPath(attachment.getPrefix(), attachment.getName());
+                String prefix = AttachmentStorage.shardPrefix(attachment.getId());
+                String name = shardedName(attachment);
+                Path target = AttachmentStorage.localPath(prefix, name);
+                try {
+                    if (Files.isRegularFile(source)) {
+                        Files.createDirectories(target.getParent());
+                        Files.move(source, target);
+                        deleteIfEmpty(source.getParent());
+                    } else if (!Files.isRegularFile(target)) {
+                        missing++;
+                        continue;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Cannot move attachment " + attachment.getId() + ": " + e.getMessage());
+                    failed++;
+                    continue;
+                }
+                attachment.setPrefix(prefix);
+                attachment.setName(name);
+                updated.add(attachment);
+                moved++;
+            }
+            transactionTemplate.executeWithoutResult(status -> attachmentRepo.saveAll(updated));
+        }
+        MigrationReport report = new MigrationReport(moved, missing, failed);
+        System.out.println("Attachment layout migration: " + report);
+        return report;
+    }
+
+    // Names stay unique inside a shard by starting with the attachment's UUID
+    private static String shardedName(Attachment attachment) {
+        String name = AttachmentStorage.fileName(attachment.getName());
+        String id = attachment.getId().toString();
+        return name.startsWith(id) ? name : id + "_" + name;
+    }
+
+    // Old prefix folders are left behind empty; the storage root itself stays
+    private static void deleteIfEmpty(Path dir) {
+        if (dir == null || dir.normalize().equals(Paths.get(AttachmentStorage.STORAGE_ROOT).normalize())) return;
+        try {
+            Files.deleteIfExists(dir);
+        } catch (DirectoryNotEmptyException ignored) {
+            // Still has other files
+        } catch (IOException e) {
+            System.err.println("Cannot delete " + dir + ": " + e.getMessage());
+        }
+    }
+
+    public record MigrationReport(int moved, int missing, int failed) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.backend.Services.AttachmentService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpEntity;
 import org.springframework.web.multipart.MultipartFile;
@@ -10,5 +11,11 @@ import java.util.UUID;
 public interface AttachmentService {
     HttpEntity<?> uploadFile(MultipartFile photo, String prefix) throws IOException;
 
-    void getFile(HttpServletResponse response, UUID id) throws IOException;
+    HttpEntity<?> uploadStream(HttpServletRequest request, String prefix, String name, String sha256) throws IOException;
+
+    void getFile(HttpServletRequest request, HttpServletResponse response, UUID id) throws IOException;
+
+    void getImage(HttpServletRequest request, HttpServletResponse response, UUID id, String size) throws IOException;
+
+    void getPreview(HttpServletRequest request, HttpServletResponse response, UUID id, int pages) throws IOException;
 }
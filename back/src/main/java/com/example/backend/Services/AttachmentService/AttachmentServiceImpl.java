@@ -1,52 +1,189 @@
 package com.example.backend.Services.AttachmentService;
 
+import com.example.backend.DTO.UploadResultDTO;
 import com.example.backend.Entity.Attachment;
 import com.example.backend.Repository.AttachmentRepo;
+import com.example.backend.Services.FileStreamService.FileStreamService;
+import com.example.backend.Services.ThumbnailService.PdfPreviewService;
+import com.example.backend.Services.ThumbnailService.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.*;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 public class AttachmentServiceImpl implements AttachmentService {
     private final AttachmentRepo attachmentRepo;
+    private final AttachmentStorage attachmentStorage;
+    private final FileStreamService fileStreamService;
+    private final ThumbnailService thumbnailService;
+    private final PdfPreviewService pdfPreviewService;
+
+    // Same limit as multipart uploads
+    @Value("${spring.servlet.multipart.max-file-size:1000MB}")
+    private DataSize maxUploadSize;
 
     @Override
     public HttpEntity<?> uploadFile(MultipartFile photo, String prefix) throws IOException {
-        UUID id = UUID.randomUUID();
-        String fileName = id + "_" + photo.getOriginalFilename();
-        String filePath = "backend/files" + prefix + "/" + fileName;
+        Attachment attachment;
+        try (InputStream in = photo.getInputStream()) {
+            attachment = attachmentStorage.store(in, prefix, photo.getOriginalFilename());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(attachment.getId());
+    }
 
-        File file = new File(filePath);
-        file.getParentFile().mkdirs();
 
-        try (OutputStream outputStream = new FileOutputStream(file)) {
-            FileCopyUtils.copy(photo.getInputStream(), outputStream);
+    /**
+     * Reads the raw request body straight into storage: no multipart parsing and no
+     * spooling by the container, and size and checksum come out of the same pass.
+     */
+    @Override
+    public HttpEntity<?> uploadStream(HttpServletRequest request, String prefix, String name, String sha256) throws IOException {
+        try {
+            AttachmentStorage.checkPrefix(prefix);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        long limit = maxUploadSize.toBytes();
+        if (request.getContentLengthLong() > limit) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("File is larger than " + maxUploadSize);
         }
-        Attachment attachment = new Attachment(id, prefix, fileName);
-        attachmentRepo.save(attachment);
-        return ResponseEntity.ok(id);
+        AttachmentStorage.StoredAttachment stored;
+        try (InputStream in = new LimitedInputStream(request.getInputStream(), limit)) {
+            stored = attachmentStorage.store(in, prefix, name, sha256);
+        } catch (UploadTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("File is larger than " + maxUploadSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(UploadResultDTO.builder()
+                .id(stored.attachment().getId())
+                .name(stored.attachment().getName())
+                .size(stored.size())
+                .sha256(stored.sha256())
+                .build());
     }
 
+    @Override
+    public void getFile(HttpServletRequest request, HttpServletResponse response, UUID id) throws IOException {
+        Optional<Attachment> attachmentOptional = attachmentRepo.findById(id);
+        if (attachmentOptional.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Attachment not found");
+            return;
+        }
+        Attachment attachment = attachmentOptional.get();
+        fileStreamService.stream(request, response, attachmentStorage.resolve(attachment), attachment.getName());
+    }
 
+    /**
+     * Cover images: the original without {@code size}, otherwise a cached thumbnail
+     * (small / medium / large). Files that are not images are served as they are.
+     */
     @Override
-    public void getFile(HttpServletResponse response, UUID id) throws IOException {
+    public void getImage(HttpServletRequest request, HttpServletResponse response, UUID id, String size) throws IOException {
+        if (size == null || size.isBlank()) {
+            getFile(request, response, id);
+            return;
+        }
+        ThumbnailService.Size thumbnailSize;
+        try {
+            thumbnailSize = ThumbnailService.Size.parse(size);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "size must be small, medium or large");
+            return;
+        }
         Optional<Attachment> attachmentOptional = attachmentRepo.findById(id);
-        System.out.println(id);
-        if (attachmentOptional.isPresent()) {
-            Attachment attachment = attachmentOptional.get();
-            String prefix = attachment.getPrefix();
-            String name = attachment.getName();
-            String path = "backend/files" + prefix + "/" + name;
-            FileCopyUtils.copy(new FileInputStream(path), response.getOutputStream());
+        if (attachmentOptional.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Attachment not found");
+            return;
+        }
+        Attachment attachment = attachmentOptional.get();
+        Path thumbnail = thumbnailService.thumbnail(attachment, thumbnailSize);
+        if (thumbnail == null) {
+            fileStreamService.stream(request, response, attachmentStorage.resolve(attachment), attachment.getName());
+            return;
+        }
+        fileStreamService.stream(request, response, thumbnail);
+    }
+
+    /**
+     * JPEG of the first {@code pages} pages of a PDF attachment, rendered on first request.
+     */
+    @Override
+    public void getPreview(HttpServletRequest request, HttpServletResponse response, UUID id, int pages) throws IOException {
+        if (pages < 1 || pages > PdfPreviewService.MAX_PAGES) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "pages must be between 1 and " + PdfPreviewService.MAX_PAGES);
+            return;
         }
+        Optional<Attachment> attachmentOptional = attachmentRepo.findById(id);
+        if (attachmentOptional.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Attachment not found");
+            return;
+        }
+        Path preview;
+        try {
+            preview = pdfPreviewService.preview(attachmentOptional.get(), pages);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            response.setHeader("Retry-After", "5");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Preview is being rendered, try again shortly");
+            return;
+        }
+        if (preview == null) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Attachment is not a readable PDF");
+            return;
+        }
+        fileStreamService.stream(request, response, preview);
+    }
+
+    /**
+     * Fails once more than {@code limit} bytes were read, for bodies sent without Content-Length.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) consumed(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) consumed(read);
+            return read;
+        }
+
+        private void consumed(long count) throws UploadTooLargeException {
+            remaining -= count;
+            if (remaining < 0) throw new UploadTooLargeException();
+        }
+    }
+
+    private static final class UploadTooLargeException extends IOException {
     }
 }
@@ -0,0 +1,348 @@
+package com.example.backend.Services.AttachmentService;
+
+import com.example.backend.Entity.Attachment;
+import com.example.backend.Entity.AttachmentBlob;
+import com.example.backend.Repository.AttachmentBlobRepo;
+import com.example.backend.Repository.AttachmentRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Where attachment bytes live. New files are stored content-addressed: the upload is
+ * hashed while it streams to a temp file and kept once at
+ * backend/files/blobs/&lt;ab&gt;/&lt;cd&gt;/&lt;sha256&gt;, however many attachments share it.
+ * With {@code library.attachments.content-addressed=false} every attachment gets its own
+ * copy instead, under backend/files/sharded/&lt;ab&gt;/&lt;cd&gt;/ by its UUID, or under
+ * backend/files&lt;prefix&gt;/ as before with {@code library.attachments.layout=flat}.
+ * {@link AttachmentLayoutMigration} moves existing flat copies into the shards.
+ * <p>
+ * Blobs are reference counted. {@link #collectGarbage()} drops content-addressed
+ * attachments nothing points at any more, then the blobs left without attachments, then
+ * derived folders of attachments that no longer exist.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttachmentStorage {
+
+    public static final String STORAGE_ROOT = "backend/files";
+    private static final Path BLOB_ROOT = Paths.get(STORAGE_ROOT, "blobs");
+    static final Path TMP_ROOT = Paths.get(STORAGE_ROOT, "tmp");
+    // Thumbnails, previews and other files computed from an attachment
+    private static final Path DERIVED_ROOT = Paths.get(STORAGE_ROOT, ".derived");
+    static final String SHARDED_PREFIX = "/sharded/";
+    // Fresh uploads usually get linked to a book a little later; GC leaves them alone until then
+    private static final Duration GC_GRACE = Duration.ofHours(24);
+    private static final int LOCK_STRIPES = 64;
+
+    private final AttachmentRepo attachmentRepo;
+    private final AttachmentBlobRepo blobRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.attachments.content-addressed:true}")
+    private boolean contentAddressed;
+
+    @Value("${library.attachments.layout:sharded}")
+    private Layout layout;
+
+    // Serialises storing and collecting the same blob
+    private final Object[] locks = newLocks();
+
+    public Path resolve(Attachment attachment) {
+        if (attachment.getBlobHash() != null) {
+            return blobPath(attachment.getBlobHash());
+        }
+        return localPath(attachment.getPrefix(), attachment.getName());
+    }
+
+    static Path localPath(String prefix, String name) {
+        return Paths.get(STORAGE_ROOT + prefix + "/" + name);
+    }
+
+    /**
+     * Rejects a client-supplied prefix whose folder would not be inside {@link #STORAGE_ROOT},
+     * such as one with {@code ..} segments.
+     *
+     * @throws IllegalArgumentException if the prefix is unusable
+     */
+    public static void checkPrefix(String prefix) {
+        if (prefix == null) return;
+        Path root = Paths.get(STORAGE_ROOT).toAbsolutePath().normalize();
+        Path dir;
+        try {
+            dir = Paths.get(STORAGE_ROOT + prefix).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid prefix: " + prefix);
+        }
+        if (!prefix.isEmpty() && !prefix.startsWith("/") || !dir.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid prefix: " + prefix);
+        }
+    }
+
+    /**
+     * Folder of a sharded copy: two levels by the leading hex digits of the UUID, so no
+     * directory grows past a few entries however many files are stored.
+     */
+    static String shardPrefix(UUID id) {
+        String hex = id.toString();
+        return SHARDED_PREFIX + hex.substring(0, 2) + "/" + hex.substring(2, 4);
+    }
+
+    /**
+     * Folder for files generated from the attachment's content. Shared by all attachments
+     * with the same blob, so derivatives are made once per content.
+     */
+    public Path derivedDir(Attachment attachment) {
+        String key = attachment.getBlobHash() != null ? attachment.getBlobHash() : attachment.getId().toString();
+        return DERIVED_ROOT.resolve(key);
+    }
+
+    /**
+     * Stores {@code in} and saves an attachment for it. The stream is read once and not closed.
+     *
+     * @throws IllegalArgumentException if the prefix fails {@link #checkPrefix(String)}
+     */
+    public Attachment store(InputStream in, String prefix, String originalName) throws IOException {
+        return store(in, prefix, originalName, null).attachment();
+    }
+
+    /**
+     * Like {@link #store(InputStream, String, String)}, also reporting size and SHA-256, which
+     * are computed in the same pass that writes the bytes.
+     *
+     * @param expectedSha256 hex digest the content must match, or null
+     * @throws IllegalArgumentException if the prefix fails {@link #checkPrefix(String)} or the
+     *                                  content does not match {@code expectedSha256}; nothing is
+     *                                  kept in that case
+     */
+    public StoredAttachment store(InputStream in, String prefix, String originalName, String expectedSha256) throws IOException {
+        Attachment attachment = newAttachment(prefix, originalName);
+        MessageDigest digest = sha256();
+
+        if (!contentAddressed) {
+            Path target = resolve(attachment);
+            Files.createDirectories(target.getParent());
+            long size;
+            String hash;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(target, StandardOpenOption.CREATE_NEW), digest)) {
+                size = in.transferTo(out);
+                hash = verify(digest, expectedSha256);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            return new StoredAttachment(attachmentRepo.save(attachment), size, hash);
+        }
+
+        // Same file system as the blobs, so moving the finished upload into place is a rename
+        Path tmp = createTempFile();
+        try {
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                size = in.transferTo(out);
+            }
+            String hash = verify(digest, expectedSha256);
+            commitBlob(tmp, size, hash, attachment);
+            return new StoredAttachment(attachment, size, hash);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Takes over a finished file from {@link #createTempFile()}: it is moved into place, never
+     * copied or read again. The file is gone afterwards, whether this succeeds or not.
+     *
+     * @param digest SHA-256 of the file, fed by the caller while it wrote the file
+     */
+    public StoredAttachment storeFile(Path file, MessageDigest digest, String prefix, String originalName,
+                                      String expectedSha256) throws IOException {
+        try {
+            Attachment attachment = newAttachment(prefix, originalName);
+            long size = Files.size(file);
+            String hash = verify(digest, expectedSha256);
+
+            if (!contentAddressed) {
+                Path target = resolve(attachment);
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                return new StoredAttachment(attachmentRepo.save(attachment), size, hash);
+            }
+            commitBlob(file, size, hash, attachment);
+            return new StoredAttachment(attachment, size, hash);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * A new empty file in the staging area, on the same file system as the stored files.
+     */
+    public Path createTempFile() throws IOException {
+        Files.createDirectories(TMP_ROOT);
+        return Files.createTempFile(TMP_ROOT, "upload-", ".part");
+    }
+
+    private Attachment newAttachment(String prefix, String originalName) {
+        checkPrefix(prefix);
+        UUID id = UUID.randomUUID();
+        return Attachment.builder()
+                .id(id)
+                .prefix(!contentAddressed && layout == Layout.SHARDED ? shardPrefix(id) : prefix)
+                .name(id + "_" + fileName(originalName))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Moves tmp into the blob store unless the content is already there, and records the reference
+    private void commitBlob(Path tmp, long size, String hash, Attachment attachment) throws IOException {
+        attachment.setBlobHash(hash);
+        synchronized (lockFor(hash)) {
+            Path target = blobPath(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                blobRepo.acquire(hash, size);
+                attachmentRepo.save(attachment);
+            });
+        }
+    }
+
+    public GarbageReport collectGarbage() {
+        LocalDateTime before = LocalDateTime.now().minus(GC_GRACE);
+
+        List<Attachment> orphans = attachmentRepo.findOrphanedBlobAttachments(before);
+        transactionTemplate.executeWithoutResult(status -> {
+            attachmentRepo.deleteAllInBatch(orphans);
+            orphans.forEach(orphan -> blobRepo.release(orphan.getBlobHash()));
+        });
+
+        int blobs = 0;
+        long bytes = 0;
+        for (AttachmentBlob blob : blobRepo.findUnreferencedBefore(before)) {
+            synchronized (lockFor(blob.getHash())) {
+                Integer deleted = transactionTemplate.execute(status -> blobRepo.deleteIfUnreferenced(blob.getHash()));
+                if (deleted == null || deleted == 0) continue;
+                try {
+                    Files.deleteIfExists(blobPath(blob.getHash()));
+                    FileSystemUtils.deleteRecursively(DERIVED_ROOT.resolve(blob.getHash()));
+                    blobs++;
+                    bytes += blob.getSize() == null ? 0 : blob.getSize();
+                } catch (IOException e) {
+                    System.err.println("Cannot delete blob " + blob.getHash() + ": " + e.getMessage());
+                }
+            }
+        }
+        int derived = collectDerived(before);
+        GarbageReport report = new GarbageReport(orphans.size(), blobs, bytes, derived);
+        System.out.println("Attachment GC: " + report);
+        return report;
+    }
+
+    /**
+     * Removes derived folders keyed by the id of an attachment without a blob (see
+     * {@link #derivedDir(Attachment)}) once that attachment is gone. Blob-keyed folders go
+     * with their blob.
+     */
+    private int collectDerived(LocalDateTime before) {
+        if (!Files.isDirectory(DERIVED_ROOT)) return 0;
+        Map<UUID, Path> candidates = new HashMap<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(DERIVED_ROOT)) {
+            for (Path dir : dirs) {
+                UUID id = parseUuid(dir.getFileName().toString());
+                if (id == null) continue;
+                LocalDateTime modifiedAt = LocalDateTime.ofInstant(
+                        Files.getLastModifiedTime(dir).toInstant(), ZoneId.systemDefault());
+                if (modifiedAt.isBefore(before)) candidates.put(id, dir);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot list " + DERIVED_ROOT + ": " + e.getMessage());
+            return 0;
+        }
+        if (candidates.isEmpty()) return 0;
+        attachmentRepo.findExistingWithoutBlob(candidates.keySet()).forEach(candidates::remove);
+
+        int removed = 0;
+        for (Path dir : candidates.values()) {
+            try {
+                FileSystemUtils.deleteRecursively(dir);
+                removed++;
+            } catch (IOException e) {
+                System.err.println("Cannot delete " + dir + ": " + e.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    private static UUID parseUuid(String name) {
+        try {
+            return UUID.fromString(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String verify(MessageDigest digest, String expectedSha256) {
+        String hash = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(hash)) {
+            throw new IllegalArgumentException("Checksum mismatch: expected " + expectedSha256 + ", got " + hash);
+        }
+        return hash;
+    }
+
+    // Client-supplied names must not reach outside the prefix folder
+    static String fileName(String originalName) {
+        if (originalName == null || originalName.isBlank()) return "file";
+        return Paths.get(originalName.replace('\\', '/')).getFileName().toString();
+    }
+
+    static Path blobPath(String hash) {
+        return BLOB_ROOT.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public enum Layout {
+        FLAT, SHARDED
+    }
+
+    public record StoredAttachment(Attachment attachment, long size, String sha256) {
+    }
+
+    public record GarbageReport(int attachmentsRemoved, int blobsRemoved, long bytesFreed, int derivedFoldersRemoved) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.backend.Services.AttachmentService;
+
+import com.example.backend.DTO.ChunkedUploadDTO;
+import com.example.backend.DTO.UploadResultDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Resumable uploads: the client opens a session, PUTs fixed-size chunks in any order
+ * (in parallel if it likes, retrying the ones that failed) and then completes it.
+ * <p>
+ * Chunks land as separate files in backend/files/tmp/chunked/&lt;uploadId&gt;/, next to
+ * the session's upload.properties, so a session survives a restart. Completing
+ * concatenates the chunks, hashing them on the way, and hands the result to
+ * {@link AttachmentStorage#storeFile}, which moves it into place without reading it again.
+ * A chunk that arrives while the session is being completed waits for it and then finds
+ * the session gone.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Path STAGING_ROOT = AttachmentStorage.TMP_ROOT.resolve("chunked");
+    private static final String SESSION_FILE = "upload.properties";
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int COPY_BUFFER = 64 * 1024;
+    // Sessions nobody touched for this long are thrown away
+    private static final Duration SESSION_TTL = Duration.ofHours(24);
+
+    private final AttachmentStorage attachmentStorage;
+    private final DataSize maxUploadSize;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(AttachmentStorage attachmentStorage,
+                                @Value("${spring.servlet.multipart.max-file-size:1000MB}") DataSize maxUploadSize) {
+        this.attachmentStorage = attachmentStorage;
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public HttpEntity<?> init(String prefix, String name, long size, Integer chunkSize) throws IOException {
+        if (size <= 0) {
+            return ResponseEntity.badRequest().body("size must be positive");
+        }
+        try {
+            AttachmentStorage.checkPrefix(prefix);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (size > maxUploadSize.toBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("File is larger than " + maxUploadSize);
+        }
+        int chunk = chunkSize == null ? DEFAULT_CHUNK_SIZE : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+        purgeExpired();
+
+        Session session = new Session(UUID.randomUUID(), prefix, name, size, chunk);
+        Files.createDirectories(session.dir());
+        session.save();
+        sessions.put(session.id, session);
+        return ResponseEntity.ok(toDto(session));
+    }
+
+    public HttpEntity<?> status(UUID uploadId) throws IOException {
+        Session session = find(uploadId);
+        if (session == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(toDto(session));
+    }
+
+    /**
+     * Stores one chunk. Sending a chunk again replaces it, so a failed PUT can simply be retried.
+     */
+    public HttpEntity<?> putChunk(UUID uploadId, int index, HttpServletRequest request, String sha256) throws IOException {
+        Session session = find(uploadId);
+        if (session == null || !Files.isDirectory(session.dir())) return ResponseEntity.notFound().build();
+        if (index < 0 || index >= session.chunkCount()) {
+            return ResponseEntity.badRequest().body("Chunk index must be between 0 and " + (session.chunkCount() - 1));
+        }
+        long expected = session.chunkLength(index);
+
+        Path tmp = Files.createTempFile(session.dir(), "chunk-", ".tmp");
+        try {
+            MessageDigest digest = AttachmentStorage.sha256();
+            long written = 0;
+            try (InputStream in = request.getInputStream();
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                byte[] buffer = new byte[COPY_BUFFER];
+                int read;
+                // Stop as soon as the chunk turns out too long instead of reading the rest of it
+                while (written <= expected && (read = in.read(buffer)) != -1) {
+                    written += read;
+                    if (written <= expected) out.write(buffer, 0, read);
+                }
+            }
+            if (written != expected) {
+                return ResponseEntity.badRequest().body("Chunk " + index + " must be " + expected + " bytes");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (sha256 != null && !sha256.equalsIgnoreCase(hash)) {
+                return ResponseEntity.badRequest().body("Checksum mismatch for chunk " + index);
+            }
+            // Not while complete() is reading the chunks
+            synchronized (session) {
+                if (!Files.isDirectory(session.dir())) return ResponseEntity.notFound().build();
+                Files.move(tmp, session.chunkPath(index), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return ResponseEntity.ok(toDto(session));
+    }
+
+    public HttpEntity<?> complete(UUID uploadId, String sha256) throws IOException {
+        Session session = find(uploadId);
+        if (session == null) return ResponseEntity.notFound().build();
+
+        // A second complete of the same session waits and then finds it gone
+        synchronized (session) {
+            if (!Files.isDirectory(session.dir())) return ResponseEntity.notFound().build();
+            List<Integer> missing = missingChunks(session);
+            if (!missing.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(toDto(session));
+            }
+
+            Path assembled = attachmentStorage.createTempFile();
+            MessageDigest digest = AttachmentStorage.sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(assembled), digest)) {
+                for (int index = 0; index < session.chunkCount(); index++) {
+                    Files.copy(session.chunkPath(index), out);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(assembled);
+                throw e;
+            }
+
+            AttachmentStorage.StoredAttachment stored;
+            try {
+                stored = attachmentStorage.storeFile(assembled, digest, session.prefix, session.name, sha256);
+            } catch (IllegalArgumentException e) {
+                // Chunks stay, the client can re-send the bad ones and complete again
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            discard(session);
+            return ResponseEntity.ok(UploadResultDTO.builder()
+                    .id(stored.attachment().getId())
+                    .name(stored.attachment().getName())
+                    .size(stored.size())
+                    .sha256(stored.sha256())
+                    .build());
+        }
+    }
+
+    public HttpEntity<?> abort(UUID uploadId) throws IOException {
+        Session session = find(uploadId);
+        if (session == null) return ResponseEntity.notFound().build();
+        synchronized (session) {
+            discard(session);
+        }
+        return ResponseEntity.ok("Upload aborted");
+    }
+
+    /* =========================
+       SESSIONS
+    ========================= */
+    private Session find(UUID uploadId) {
+        return sessions.computeIfAbsent(uploadId, id -> {
+            Path file = STAGING_ROOT.resolve(id.toString()).resolve(SESSION_FILE);
+            if (!Files.isRegularFile(file)) return null;
+            try {
+                return Session.load(id, file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cannot read upload session " + id + ": " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private void discard(Session session) throws IOException {
+        sessions.remove(session.id);
+        FileSystemUtils.deleteRecursively(session.dir());
+    }
+
+    private void purgeExpired() {
+        File[] dirs = STAGING_ROOT.toFile().listFiles(File::isDirectory);
+        if (dirs == null) return;
+        Instant cutoff = Instant.now().minus(SESSION_TTL);
+        for (File dir : dirs) {
+            if (Instant.ofEpochMilli(dir.lastModified()).isBefore(cutoff)) {
+                try {
+                    sessions.remove(UUID.fromString(dir.getName()));
+                } catch (IllegalArgumentException ignored) {
+                    // not one of ours
+                }
+                FileSystemUtils.deleteRecursively(dir);
+            }
+        }
+    }
+
+    private List<Integer> missingChunks(Session session) {
+        return IntStream.range(0, session.chunkCount())
+                .filter(index -> !Files.isRegularFile(session.chunkPath(index)))
+                .boxed()
+                .toList();
+    }
+
+    private ChunkedUploadDTO toDto(Session session) {
+        List<Integer> missing = missingChunks(session);
+        List<Integer> received = IntStream.range(0, session.chunkCount())
+                .filter(index -> !missing.contains(index))
+                .boxed()
+                .toList();
+        return ChunkedUploadDTO.builder()
+                .uploadId(session.id)
+                .name(session.name)
+                .size(session.size)
+                .chunkSize(session.chunkSize)
+                .chunkCount(session.chunkCount())
+                .receivedChunks(received)
+                .missingChunks(missing)
+                .build();
+    }
+
+    private record Session(UUID id, String prefix, String name, long size, int chunkSize) {
+
+        Path dir() {
+            return STAGING_ROOT.resolve(id.toString());
+        }
+
+        int chunkCount() {
+            return (int) ((size + chunkSize - 1) / chunkSize);
+        }
+
+        long chunkLength(int index) {
+            return Math.min(chunkSize, size - (long) index * chunkSize);
+        }
+
+        Path chunkPath(int index) {
+            return dir().resolve(index + ".part");
+        }
+
+        void save() throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("prefix", prefix);
+            properties.setProperty("name", name);
+            properties.setProperty("size", Long.toString(size));
+            properties.setProperty("chunkSize", Integer.toString(chunkSize));
+            try (Writer writer = Files.newBufferedWriter(dir().resolve(SESSION_FILE))) {
+                properties.store(writer, null);
+            }
+        }
+
+        static Session load(UUID id, Path file) throws IOException {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            }
+            return new Session(id,
+                    properties.getProperty("prefix"),
+                    properties.getProperty("name"),
+                    Long.parseLong(properties.getProperty("size")),
+                    Integer.parseInt(properties.getProperty("chunkSize")));
+        }
+    }
+}
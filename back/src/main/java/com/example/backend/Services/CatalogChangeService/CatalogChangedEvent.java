@@ -0,0 +1,34 @@
+package com.example.backend.Services.CatalogChangeService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a catalog entity is written. Listeners that keep derived
+ * state (caches, in-memory indexes) should subscribe with
+ * {@code @TransactionalEventListener} so they only see committed data.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+
+    public enum Kind {
+        PERSISTED,
+        UPDATED,
+        REMOVED,
+        // Many rows changed outside JPA (bulk import, batch SQL); entity is null
+        BULK
+    }
+
+    private final Class<?> entityType;
+    private final Object entity;
+    private final Kind kind;
+
+    public static CatalogChangedEvent bulk(Class<?> entityType) {
+        return new CatalogChangedEvent(entityType, null, Kind.BULK);
+    }
+
+    public boolean concerns(Class<?> type) {
+        return entityType == type;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.Services.CatalogChangeService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener for catalog entities; Hibernate obtains it from Spring, so the
+ * publisher is injected normally.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEntityListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @PostPersist
+    public void afterPersist(Object entity) {
+        publisher.publishEvent(new CatalogChangedEvent(entity.getClass(), entity, CatalogChangedEvent.Kind.PERSISTED));
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        publisher.publishEvent(new CatalogChangedEvent(entity.getClass(), entity, CatalogChangedEvent.Kind.UPDATED));
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        publisher.publishEvent(new CatalogChangedEvent(entity.getClass(), entity, CatalogChangedEvent.Kind.REMOVED));
+    }
+}
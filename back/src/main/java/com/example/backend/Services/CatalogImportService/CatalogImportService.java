@@ -0,0 +1,379 @@
+package com.example.backend.Services.CatalogImportService;
+
+import com.example.backend.Entity.*;
+import com.example.backend.Repository.*;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import com.example.backend.Services.SearchService.SearchQueries;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds catalogs from the import folders. The academic catalog comes from ./fanlar:
+ * <pre>
+ * fanlar/&lt;subject&gt;/yonalish.xlsx                       faculties the subject belongs to
+ * fanlar/&lt;subject&gt;/adabiyotlar/name_author_publisher_genre.pdf
+ * </pre>
+ * Folders are scanned in parallel without touching the database; faculties and
+ * subjects are then resolved from in-memory maps and links/books are written with
+ * JDBC batches of {@value #BATCH_SIZE} rows. ./badiiy and ./audio are flat folders of
+ * name_author_publisher_genre files.
+ * <p>
+ * Every run reports into an {@link ImportProgress}. Scanning stops at the next unit of
+ * work once cancellation is requested; replacing the rows does not. The old rows are
+ * deleted and the new ones inserted in one transaction, so a failure leaves the
+ * previous catalog in place, and the {@link ImportManifest} is refreshed afterwards so
+ * that {@link CatalogSyncService} can continue incrementally. The BULK
+ * {@link CatalogChangedEvent}s go out whatever happened, so derived indexes reload.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+
+    public static final String FANLAR_ROOT = "./fanlar";
+    public static final String BADIIY_ROOT = "./badiiy";
+    public static final String AUDIO_ROOT = "./audio";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_LINK_SQL =
+            "INSERT INTO faculty_subject (faculty_id, subject_id) VALUES (?, ?)";
+
+    private static final String INSERT_BOOK_SQL = """
+            INSERT INTO book (name, author, publisher, genre, description, created_at, subject_id, path, search_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FacultyRepo facultyRepo;
+    private final SubjectRepo subjectRepo;
+    private final EducationTypeRepo educationTypeRepo;
+    private final BadiiyRepo badiiyRepo;
+    private final AudioRepo audioRepo;
+    private final ImportManifest manifest;
+    private final YonalishReader yonalishReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    /**
+     * Replaces all subjects, faculty links and books with what is on disk.
+     */
+    public ImportProgress importFanlar(ImportProgress progress) {
+        File rootFolder = new File(FANLAR_ROOT);
+        if (!rootFolder.exists() || !rootFolder.isDirectory()) {
+            throw new IllegalArgumentException("Invalid root folder path.");
+        }
+
+        List<SubjectFolder> folders = scanSubjectFolders(rootFolder, progress);
+        Map<String, Faculty> faculties = resolveFaculties(
+                folders.stream().flatMap(folder -> folder.faculties().stream()).toList(), progress);
+        progress.checkCancelled();
+
+        progress.markUncancellable();
+        Map<String, Subject> subjects;
+        try {
+            subjects = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM book");
+                jdbcTemplate.update("DELETE FROM faculty_subject_kurs");
+                jdbcTemplate.update("DELETE FROM faculty_subject");
+                jdbcTemplate.update("DELETE FROM subject");
+
+                Map<String, Subject> saved = saveSubjects(folders.stream().map(SubjectFolder::name).toList());
+                List<Object[]> links = new ArrayList<>();
+                List<Object[]> books = new ArrayList<>();
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (SubjectFolder folder : folders) {
+                    Subject subject = saved.get(folder.name());
+                    for (FacultyRow row : folder.faculties()) {
+                        Faculty faculty = faculties.get(row.code());
+                        if (faculty != null) {
+                            links.add(new Object[]{faculty.getId(), subject.getId()});
+                        }
+                    }
+                    for (BookFile file : folder.books()) {
+                        books.add(new Object[]{
+                                file.name(), file.author(), file.publisher(), file.genre(),
+                                "Book from " + subject.getName(), now, subject.getId(), file.path(),
+                                SearchQueries.toSearchKey(file.name(), file.author(), file.publisher())
+                        });
+                    }
+                }
+                batchInsert(INSERT_LINK_SQL, links, progress);
+                batchInsert(INSERT_BOOK_SQL, books, progress);
+                return saved;
+            });
+        } finally {
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(Subject.class));
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(FacultySubject.class));
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(Book.class));
+        }
+
+        Map<String, Integer> sheets = new HashMap<>();
+        for (SubjectFolder folder : folders) {
+            if (folder.hasYonalish()) {
+                sheets.put(yonalishFile(new File(rootFolder, folder.name())).getAbsolutePath(),
+                        subjects.get(folder.name()).getId());
+            }
+        }
+        manifest.rebuild(ImportManifestEntry.Kind.YONALISH, sheets, progress);
+        manifest.rebuild(ImportManifestEntry.Kind.BOOK, manifest.rowsUnder("book", rootFolder), progress);
+
+        System.out.println("Fanlar import finished: " + progress);
+        return progress;
+    }
+
+    /**
+     * Replaces all badiiy books with the files in ./badiiy (name_author_publisher_genre.pdf).
+     */
+    public ImportProgress importBadiiy(ImportProgress progress) {
+        List<Badiiy> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (File bookFile : listImportFiles(BADIIY_ROOT)) {
+            progress.checkCancelled();
+            progress.fileScanned();
+            String[] details = splitFileName(bookFile, progress);
+            if (details == null) continue;
+            rows.add(badiiyFromFile(bookFile, details, now));
+        }
+
+        replaceAll(badiiyRepo, rows, Badiiy.class, progress);
+        manifest.rebuild(ImportManifestEntry.Kind.BADIIY, manifest.rowsUnder("badiiy", new File(BADIIY_ROOT)), progress);
+
+        System.out.println("Badiiy import finished: " + progress);
+        return progress;
+    }
+
+    /**
+     * Replaces all audio books with the files in ./audio (name_author_publisher_genre.mp3).
+     */
+    public ImportProgress importAudio(ImportProgress progress) {
+        List<Audio> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (File audioFile : listImportFiles(AUDIO_ROOT)) {
+            progress.checkCancelled();
+            progress.fileScanned();
+            String[] details = splitFileName(audioFile, progress);
+            if (details == null) continue;
+            rows.add(audioFromFile(audioFile, details, now));
+        }
+
+        replaceAll(audioRepo, rows, Audio.class, progress);
+        manifest.rebuild(ImportManifestEntry.Kind.AUDIO, manifest.rowsUnder("audio", new File(AUDIO_ROOT)), progress);
+
+        System.out.println("Audio import finished: " + progress);
+        return progress;
+    }
+
+    static Badiiy badiiyFromFile(File file, String[] details, LocalDateTime now) {
+        return Badiiy.builder()
+                .name(details[0])
+                .author(details[1])
+                .publisher(details[2])
+                .genre(details[3].replace(".pdf", "").replace(".doc", "").replace(".docx", ""))
+                .description("Badiiy book from folder")
+                .createdAt(now)
+                .path(file.getAbsolutePath())
+                .build();
+    }
+
+    static Audio audioFromFile(File file, String[] details, LocalDateTime now) {
+        return Audio.builder()
+                .name(details[0])
+                .author(details[1])
+                .publisher(details[2])
+                .genre(details[3].replace(".mp3", "").replace(".wav", "").replace(".flac", ""))
+                .description("Audio book from folder")
+                .createdAt(now)
+                .path(file.getAbsolutePath())
+                .build();
+    }
+
+    static List<File> listImportFiles(String root) {
+        File rootFolder = new File(root);
+        if (!rootFolder.exists() || !rootFolder.isDirectory()) {
+            throw new IllegalArgumentException("Invalid root folder path.");
+        }
+        File[] files = Objects.requireNonNull(rootFolder.listFiles(File::isFile));
+        return Arrays.stream(files).filter(file -> file.getName().contains("_")).toList();
+    }
+
+    static String[] splitFileName(File file, ImportProgress progress) {
+        String[] details = file.getName().split("_");
+        if (details.length < 4) {
+            progress.error("Skipped file: " + file.getName() + " due to insufficient details.");
+            return null;
+        }
+        return details;
+    }
+
+    // Delete and re-insert in one transaction, no longer cancellable; see the class comment
+    private <T> void replaceAll(JpaRepository<T, ?> repo, List<T> rows, Class<T> type, ImportProgress progress) {
+        progress.checkCancelled();
+        progress.markUncancellable();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repo.deleteAllInBatch();
+                for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                    List<T> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+                    repo.saveAll(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    progress.rowsInserted(chunk.size());
+                }
+            });
+        } finally {
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(type));
+        }
+    }
+
+    /* =========================
+       SCAN (parallel, no database)
+    ========================= */
+    private List<SubjectFolder> scanSubjectFolders(File rootFolder, ImportProgress progress) {
+        File[] subjectDirs = Objects.requireNonNull(rootFolder.listFiles(File::isDirectory));
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<SubjectFolder>> futures = new ArrayList<>();
+            for (File subjectDir : subjectDirs) {
+                futures.add(executor.submit(() -> scanSubjectFolder(subjectDir, progress)));
+            }
+            List<SubjectFolder> folders = new ArrayList<>(futures.size());
+            for (Future<SubjectFolder> future : futures) {
+                folders.add(future.get());
+            }
+            return folders;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ImportCancelledException cancelled) throw cancelled;
+            throw new IllegalStateException("Scanning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SubjectFolder scanSubjectFolder(File subjectFolder, ImportProgress progress) {
+        progress.checkCancelled();
+        List<FacultyRow> faculties = new ArrayList<>();
+        File yonalishFile = yonalishFile(subjectFolder);
+        if (yonalishFile.exists()) {
+            progress.fileScanned();
+            faculties = yonalishReader.read(yonalishFile, progress);
+        }
+
+        List<BookFile> books = new ArrayList<>();
+        for (File bookFile : listBookFiles(subjectFolder)) {
+            progress.fileScanned();
+            BookFile book = parseBookFileName(bookFile);
+            if (book == null) {
+                progress.error("Skipped file: " + bookFile.getName() + " due to insufficient details.");
+            } else {
+                books.add(book);
+            }
+        }
+        return new SubjectFolder(subjectFolder.getName(), yonalishFile.exists(), faculties, books);
+    }
+
+    static File yonalishFile(File subjectFolder) {
+        return new File(subjectFolder, "yonalish.xlsx");
+    }
+
+    static List<File> listBookFiles(File subjectFolder) {
+        File booksFolder = new File(subjectFolder, "adabiyotlar");
+        File[] bookFiles = booksFolder.isDirectory() ? booksFolder.listFiles(File::isFile) : null;
+        return bookFiles == null ? List.of() : Arrays.asList(bookFiles);
+    }
+
+    // filename format: name_author_publisher_genre.pdf
+    static BookFile parseBookFileName(File bookFile) {
+        String[] parts = bookFile.getName().split("_");
+        if (parts.length < 4) return null;
+        String genre = parts[3].replace(".pdf", "").replace(".doc", "").replace(".docx", "");
+        return new BookFile(parts[0], parts[1], parts[2], genre, bookFile.getAbsolutePath());
+    }
+
+    /* =========================
+       RESOLVE (in-memory lookups)
+    ========================= */
+    Map<String, Subject> saveSubjects(Collection<String> names) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Subject> subjects = names.stream()
+                .map(name -> Subject.builder()
+                        .name(name)
+                        .description("Description for " + name)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        return subjectRepo.saveAll(subjects).stream()
+                .collect(Collectors.toMap(Subject::getName, Function.identity(), (a, b) -> a));
+    }
+
+    /**
+     * Faculties by code, creating the ones {@code rows} mention that do not exist yet.
+     */
+    Map<String, Faculty> resolveFaculties(Collection<FacultyRow> rows, ImportProgress progress) {
+        Map<String, Faculty> byCode = facultyRepo.findAll().stream()
+                .collect(Collectors.toMap(Faculty::getCode, Function.identity(), (a, b) -> a));
+        Map<Integer, EducationType> educationTypes = educationTypeRepo.findAll().stream()
+                .collect(Collectors.toMap(EducationType::getId, Function.identity()));
+
+        List<Faculty> created = new ArrayList<>();
+        for (FacultyRow row : rows) {
+            if (byCode.containsKey(row.code())) continue;
+            EducationType educationType = educationTypes.get(row.educationTypeId());
+            if (educationType == null) {
+                progress.error("Invalid educationTypeId " + row.educationTypeId() + " for faculty " + row.code());
+                continue;
+            }
+            Faculty faculty = Faculty.builder()
+                    .code(row.code())
+                    .name(row.name())
+                    .educationType(educationType)
+                    .build();
+            byCode.put(row.code(), faculty);
+            created.add(faculty);
+        }
+        facultyRepo.saveAll(created);
+        return byCode;
+    }
+
+    /* =========================
+       WRITE (JDBC batches)
+    ========================= */
+    // Runs inside the caller's transaction
+    private void batchInsert(String sql, List<Object[]> rows, ImportProgress progress) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            jdbcTemplate.batchUpdate(sql, chunk);
+            progress.rowsInserted(chunk.size());
+        }
+    }
+
+    private record SubjectFolder(String name, boolean hasYonalish, List<FacultyRow> faculties, List<BookFile> books) {
+    }
+
+    record FacultyRow(String code, String name, Integer educationTypeId) {
+    }
+
+    record BookFile(String name, String author, String publisher, String genre, String path) {
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.backend.Services.CatalogImportService;
+
+import com.example.backend.Entity.*;
+import com.example.backend.Entity.ImportManifestEntry.Kind;
+import com.example.backend.Repository.*;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import com.example.backend.Services.CatalogImportService.CatalogImportService.BookFile;
+import com.example.backend.Services.CatalogImportService.CatalogImportService.FacultyRow;
+import com.example.backend.Services.CatalogImportService.ImportManifest.Changed;
+import com.example.backend.Services.CatalogImportService.ImportManifest.FileState;
+import com.example.backend.Services.CatalogImportService.ImportManifest.Plan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental counterpart of {@link CatalogImportService}: compares the import folders
+ * with the {@link ImportManifest} and only inserts, updates or deletes the rows whose
+ * files changed. Ids of untouched rows survive, and a file that was only moved or
+ * renamed keeps its row.
+ * <p>
+ * Rows without a file under the import root (e.g. books added by hand) are never
+ * touched. The first run over a catalog adopts the rows a previous full import made.
+ * A sync can be narrowed to some subject folders or files, as {@link ImportFolderWatcher} does.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogSyncService {
+
+    private final CatalogImportService catalogImportService;
+    private final ImportManifest manifest;
+    private final YonalishReader yonalishReader;
+    private final TransactionTemplate transactionTemplate;
+    private final SubjectRepo subjectRepo;
+    private final FacultySubjectRepo facultySubjectRepo;
+    private final BookRepo bookRepo;
+    private final BadiiyRepo badiiyRepo;
+    private final AudioRepo audioRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImportProgress syncFanlar(ImportProgress progress) {
+        return syncFanlar(progress, null);
+    }
+
+    /**
+     * @param subjectNames subject folders to look at, or null for the whole tree
+     */
+    public ImportProgress syncFanlar(ImportProgress progress, Collection<String> subjectNames) {
+        File rootFolder = new File(CatalogImportService.FANLAR_ROOT);
+        if (!rootFolder.exists() || !rootFolder.isDirectory()) {
+            throw new IllegalArgumentException("Invalid root folder path.");
+        }
+        File[] subjectFolders = Objects.requireNonNull(rootFolder.listFiles(file ->
+                file.isDirectory() && (subjectNames == null || subjectNames.contains(file.getName()))));
+        Predicate<String> inScope = subjectNames == null ? path -> true : path -> subjectNames.stream()
+                .anyMatch(name -> path.startsWith(new File(rootFolder, name).getAbsolutePath() + File.separator));
+
+        // Subjects are matched by folder name; new folders get a subject, removed ones keep theirs
+        Map<String, Subject> subjects = subjectRepo.findAll().stream()
+                .collect(Collectors.toMap(Subject::getName, Function.identity(), (a, b) -> a, HashMap::new));
+        List<String> missing = Arrays.stream(subjectFolders)
+                .map(File::getName)
+                .filter(name -> !subjects.containsKey(name))
+                .toList();
+        if (!missing.isEmpty()) {
+            subjects.putAll(catalogImportService.saveSubjects(missing));
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(Subject.class));
+        }
+
+        List<File> sheets = new ArrayList<>();
+        List<File> bookFiles = new ArrayList<>();
+        for (File subjectFolder : subjectFolders) {
+            progress.checkCancelled();
+            File sheet = CatalogImportService.yonalishFile(subjectFolder);
+            if (sheet.isFile()) {
+                progress.fileScanned();
+                sheets.add(sheet);
+            }
+            for (File bookFile : CatalogImportService.listBookFiles(subjectFolder)) {
+                progress.fileScanned();
+                if (CatalogImportService.parseBookFileName(bookFile) == null) {
+                    progress.error("Skipped file: " + bookFile.getName() + " due to insufficient details.");
+                } else {
+                    bookFiles.add(bookFile);
+                }
+            }
+        }
+
+        if (manifest.isEmpty(Kind.YONALISH)) {
+            Map<String, Integer> adopted = new HashMap<>();
+            for (File sheet : sheets) {
+                Subject subject = subjects.get(sheet.getParentFile().getName());
+                if (!missing.contains(subject.getName())) adopted.put(sheet.getAbsolutePath(), subject.getId());
+            }
+            manifest.rebuild(Kind.YONALISH, adopted, progress);
+        }
+        if (manifest.isEmpty(Kind.BOOK)) {
+            manifest.rebuild(Kind.BOOK, manifest.rowsUnder("book", rootFolder), progress);
+        }
+
+        Plan sheetPlan = manifest.plan(Kind.YONALISH, sheets, inScope, progress);
+        Plan bookPlan = manifest.plan(Kind.BOOK, bookFiles, inScope, progress);
+
+        // Spreadsheets are parsed outside the transaction, and only the ones that changed
+        Map<String, List<FacultyRow>> sheetRows = new HashMap<>();
+        for (FileState state : sheetPlan.getAdded()) {
+            sheetRows.put(state.path(), yonalishReader.read(state.file(), state.contentHash(), progress));
+        }
+        for (Changed changed : sheetPlan.getChanged()) {
+            FileState state = changed.state();
+            sheetRows.put(state.path(), yonalishReader.read(state.file(), state.contentHash(), progress));
+        }
+        Map<String, Faculty> faculties = catalogImportService.resolveFaculties(
+                sheetRows.values().stream().flatMap(List::stream).toList(), progress);
+        progress.checkCancelled();
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            applySheets(sheetPlan, sheetRows, subjects, faculties, progress);
+            applyFiles(bookPlan, bookRepo,
+                    file -> bookFromFile(file, subjects, now),
+                    (book, parsed) -> {
+                        book.setName(parsed.getName());
+                        book.setAuthor(parsed.getAuthor());
+                        book.setPublisher(parsed.getPublisher());
+                        book.setGenre(parsed.getGenre());
+                        book.setSubject(parsed.getSubject());
+                        book.setPath(parsed.getPath());
+                    },
+                    Book::getId, progress);
+        });
+
+        if (sheetPlan.hasRowChanges()) eventPublisher.publishEvent(CatalogChangedEvent.bulk(FacultySubject.class));
+        if (bookPlan.hasRowChanges()) eventPublisher.publishEvent(CatalogChangedEvent.bulk(Book.class));
+
+        System.out.println("Fanlar sync finished: " + progress);
+        return progress;
+    }
+
+    public ImportProgress syncBadiiy(ImportProgress progress) {
+        return syncBadiiy(progress, null);
+    }
+
+    /**
+     * @param paths absolute paths of the files to look at, or null for the whole folder
+     */
+    public ImportProgress syncBadiiy(ImportProgress progress, Collection<String> paths) {
+        LocalDateTime now = LocalDateTime.now();
+        syncFlatFolder(Kind.BADIIY, CatalogImportService.BADIIY_ROOT, "badiiy", paths, Badiiy.class, badiiyRepo,
+                (file, details) -> CatalogImportService.badiiyFromFile(file, details, now),
+                (badiiy, parsed) -> {
+                    badiiy.setName(parsed.getName());
+                    badiiy.setAuthor(parsed.getAuthor());
+                    badiiy.setPublisher(parsed.getPublisher());
+                    badiiy.setGenre(parsed.getGenre());
+                    badiiy.setPath(parsed.getPath());
+                },
+                Badiiy::getId, progress);
+        System.out.println("Badiiy sync finished: " + progress);
+        return progress;
+    }
+
+    public ImportProgress syncAudio(ImportProgress progress) {
+        return syncAudio(progress, null);
+    }
+
+    /**
+     * @param paths absolute paths of the files to look at, or null for the whole folder
+     */
+    public ImportProgress syncAudio(ImportProgress progress, Collection<String> paths) {
+        LocalDateTime now = LocalDateTime.now();
+        syncFlatFolder(Kind.AUDIO, CatalogImportService.AUDIO_ROOT, "audio", paths, Audio.class, audioRepo,
+                (file, details) -> CatalogImportService.audioFromFile(file, details, now),
+                (audio, parsed) -> {
+                    audio.setName(parsed.getName());
+                    audio.setAuthor(parsed.getAuthor());
+                    audio.setPublisher(parsed.getPublisher());
+                    audio.setGenre(parsed.getGenre());
+                    audio.setPath(parsed.getPath());
+                },
+                Audio::getId, progress);
+        System.out.println("Audio sync finished: " + progress);
+        return progress;
+    }
+
+    private <T> void syncFlatFolder(Kind kind, String root, String table, Collection<String> paths,
+                                    Class<T> type, JpaRepository<T, Integer> repo,
+                                    BiFunction<File, String[], T> parse,
+                                    BiConsumer<T, T> copyFileFields, Function<T, Integer> idOf,
+                                    ImportProgress progress) {
+        List<File> files = new ArrayList<>();
+        List<File> candidates = paths == null
+                ? CatalogImportService.listImportFiles(root)
+                : paths.stream().map(File::new).filter(file -> file.isFile() && file.getName().contains("_")).toList();
+        for (File file : candidates) {
+            progress.fileScanned();
+            if (CatalogImportService.splitFileName(file, progress) != null) files.add(file);
+        }
+        if (manifest.isEmpty(kind)) {
+            manifest.rebuild(kind, manifest.rowsUnder(table, new File(root)), progress);
+        }
+
+        Plan plan = manifest.plan(kind, files, paths == null ? path -> true : paths::contains, progress);
+        transactionTemplate.executeWithoutResult(status -> applyFiles(plan, repo,
+                file -> parse.apply(file, file.getName().split("_")), copyFileFields, idOf, progress));
+        if (plan.hasRowChanges()) {
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(type));
+        }
+    }
+
+    /* =========================
+       APPLY (one transaction per catalog)
+    ========================= */
+    private <T> void applyFiles(Plan plan, JpaRepository<T, Integer> repo, Function<File, T> parse,
+                                BiConsumer<T, T> copyFileFields, Function<T, Integer> idOf,
+                                ImportProgress progress) {
+        for (FileState state : plan.getAdded()) {
+            progress.checkCancelled();
+            T parsed = parse.apply(state.file());
+            ImportManifestEntry source = plan.takeRenameSource(state);
+            T existing = source == null ? null : repo.findById(source.getEntityId()).orElse(null);
+            if (existing != null) {
+                copyFileFields.accept(existing, parsed);
+                repo.save(existing);
+                plan.recordRenamed(source, state);
+                progress.rowsUpdated(1);
+            } else {
+                if (source != null) plan.recordDeleted(source);
+                plan.recordInserted(state, idOf.apply(repo.save(parsed)));
+                progress.rowsInserted(1);
+            }
+        }
+        // Row fields come from the file name, so new content under the same name only moves the manifest
+        plan.getChanged().forEach(plan::recordChanged);
+
+        List<Integer> gone = plan.getVanished().stream()
+                .map(ImportManifestEntry::getEntityId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!gone.isEmpty()) {
+            repo.deleteAllByIdInBatch(gone);
+            progress.rowsDeleted(gone.size());
+        }
+        plan.getVanished().forEach(plan::recordDeleted);
+        manifest.save(plan);
+    }
+
+    private void applySheets(Plan plan, Map<String, List<FacultyRow>> sheetRows, Map<String, Subject> subjects,
+                             Map<String, Faculty> faculties, ImportProgress progress) {
+        for (FileState state : plan.getAdded()) {
+            progress.checkCancelled();
+            Subject subject = subjects.get(state.file().getParentFile().getName());
+            syncLinks(subject, sheetRows.get(state.path()), faculties, progress);
+            plan.recordInserted(state, subject.getId());
+        }
+        for (Changed changed : plan.getChanged()) {
+            progress.checkCancelled();
+            Subject subject = subjects.get(changed.state().file().getParentFile().getName());
+            syncLinks(subject, sheetRows.get(changed.state().path()), faculties, progress);
+            plan.recordChanged(changed);
+        }
+        for (ImportManifestEntry entry : plan.getVanished()) {
+            List<FacultySubject> links = facultySubjectRepo.findAllBySubject_Id(entry.getEntityId());
+            facultySubjectRepo.deleteAll(links);
+            progress.rowsDeleted(links.size());
+            plan.recordDeleted(entry);
+        }
+        manifest.save(plan);
+    }
+
+    /**
+     * Makes the subject's faculty links match the spreadsheet, leaving links that are
+     * still listed (and their kurs) alone.
+     */
+    private void syncLinks(Subject subject, List<FacultyRow> rows, Map<String, Faculty> faculties,
+                           ImportProgress progress) {
+        Map<Integer, Faculty> wanted = new LinkedHashMap<>();
+        for (FacultyRow row : rows) {
+            Faculty faculty = faculties.get(row.code());
+            if (faculty != null) wanted.put(faculty.getId(), faculty);
+        }
+        List<FacultySubject> stale = new ArrayList<>();
+        for (FacultySubject link : facultySubjectRepo.findAllBySubject_Id(subject.getId())) {
+            if (wanted.remove(link.getFaculty().getId()) == null) stale.add(link);
+        }
+        facultySubjectRepo.deleteAll(stale);
+        facultySubjectRepo.saveAll(wanted.values().stream()
+                .map(faculty -> new FacultySubject(faculty, subject))
+                .toList());
+        progress.rowsDeleted(stale.size());
+        progress.rowsInserted(wanted.size());
+    }
+
+    private Book bookFromFile(File file, Map<String, Subject> subjects, LocalDateTime now) {
+        BookFile parsed = CatalogImportService.parseBookFileName(file);
+        // fanlar/<subject>/adabiyotlar/<file>
+        Subject subject = subjects.get(file.getParentFile().getParentFile().getName());
+        return Book.builder()
+                .name(parsed.name())
+                .author(parsed.author())
+                .publisher(parsed.publisher())
+                .genre(parsed.genre())
+                .description("Book from " + subject.getName())
+                .createdAt(now)
+                .subject(subject)
+                .path(parsed.path())
+                .build();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.backend.Services.CatalogImportService;
+
+public class ImportCancelledException extends RuntimeException {
+    public ImportCancelledException() {
+        super("Import cancelled");
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.Services.CatalogImportService;
+
+/**
+ * Catalogs that can be imported from disk; at most one job per catalog runs at a time.
+ */
+public enum ImportCatalog {
+    BOOKS,
+    BADIIY,
+    AUDIO
+}
@@ -0,0 +1,244 @@
+package com.example.backend.Services.CatalogImportService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches ./fanlar, ./badiiy and ./audio and syncs what changed once librarians stop
+ * copying. Off unless {@code library.import.watch.enabled=true}.
+ * <p>
+ * Events are collected per catalog: subject folder names for ./fanlar, file paths for
+ * ./badiiy and ./audio. When no event has arrived for {@code library.import.watch.quiet-millis},
+ * a sync job over just those folders or files is started through {@link ImportJobService},
+ * at most {@value #MAX_BATCH} of them per job. While an import of the same catalog is
+ * running, the batch waits for the next round.
+ */
+@Component
+@ConditionalOnProperty(name = "library.import.watch.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ImportFolderWatcher {
+
+    private static final int MAX_BATCH = 100;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final CatalogSyncService catalogSyncService;
+    private final ImportJobService importJobService;
+
+    @Value("${library.import.watch.quiet-millis:3000}")
+    private long quietMillis;
+
+    private final Path fanlarRoot = root(CatalogImportService.FANLAR_ROOT);
+    private final Path badiiyRoot = root(CatalogImportService.BADIIY_ROOT);
+    private final Path audioRoot = root(CatalogImportService.AUDIO_ROOT);
+
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    // BOOKS: subject folder names; BADIIY / AUDIO: absolute file paths
+    private final Map<ImportCatalog, Set<String>> pending = new EnumMap<>(ImportCatalog.class);
+    // Catalogs whose events overflowed and need a sync of the whole folder
+    private final Set<ImportCatalog> rescan = EnumSet.noneOf(ImportCatalog.class);
+    private volatile long lastEventMillis;
+
+    private WatchService watchService;
+    private Thread pollThread;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        registerFanlar();
+        register(badiiyRoot);
+        register(audioRoot);
+
+        pollThread = new Thread(this::poll, "import-watcher");
+        pollThread.setDaemon(true);
+        pollThread.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "import-watcher-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        System.out.println("Watching import folders (" + directories.size() + " directories)");
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        flusher.shutdownNow();
+        pollThread.interrupt();
+        watchService.close();
+    }
+
+    /* =========================
+       EVENTS
+    ========================= */
+    private void poll() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = directories.get(key);
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        markRescan(dir);
+                    } else {
+                        onEvent(event.kind(), dir.resolve((Path) event.context()));
+                    }
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    private void onEvent(WatchEvent.Kind<?> kind, Path path) {
+        if (path.startsWith(fanlarRoot)) {
+            Path relative = fanlarRoot.relativize(path);
+            if (kind == ENTRY_CREATE && relative.getNameCount() <= 2 && Files.isDirectory(path)) {
+                // A new subject folder, or the adabiyotlar folder inside one
+                if (relative.getNameCount() == 1) registerSubject(path);
+                else register(path);
+            }
+            markPending(ImportCatalog.BOOKS, relative.getName(0).toString());
+        } else if (path.startsWith(badiiyRoot)) {
+            markPending(ImportCatalog.BADIIY, path.toString());
+        } else if (path.startsWith(audioRoot)) {
+            markPending(ImportCatalog.AUDIO, path.toString());
+        }
+    }
+
+    private void markPending(ImportCatalog catalog, String item) {
+        synchronized (pending) {
+            pending.computeIfAbsent(catalog, c -> new LinkedHashSet<>()).add(item);
+        }
+        lastEventMillis = System.currentTimeMillis();
+    }
+
+    private void markRescan(Path dir) {
+        ImportCatalog catalog = dir.startsWith(fanlarRoot) ? ImportCatalog.BOOKS
+                : dir.startsWith(badiiyRoot) ? ImportCatalog.BADIIY
+                : ImportCatalog.AUDIO;
+        synchronized (pending) {
+            rescan.add(catalog);
+        }
+        lastEventMillis = System.currentTimeMillis();
+    }
+
+    /* =========================
+       DEBOUNCED SYNC
+    ========================= */
+    private void flush() {
+        try {
+            if (System.currentTimeMillis() - lastEventMillis < quietMillis) return;
+            for (ImportCatalog catalog : ImportCatalog.values()) {
+                flush(catalog);
+            }
+        } catch (Exception e) {
+            // Keep the scheduled task alive
+            System.err.println("Import watcher: " + e.getMessage());
+        }
+    }
+
+    private void flush(ImportCatalog catalog) {
+        Set<String> batch;
+        boolean whole;
+        synchronized (pending) {
+            Set<String> items = pending.computeIfAbsent(catalog, c -> new LinkedHashSet<>());
+            whole = rescan.contains(catalog);
+            if ((!whole && items.isEmpty()) || importJobService.isRunning(catalog)) return;
+            if (whole) {
+                batch = null;
+                rescan.remove(catalog);
+                items.clear();
+            } else {
+                batch = new HashSet<>();
+                Iterator<String> iterator = items.iterator();
+                while (iterator.hasNext() && batch.size() < MAX_BATCH) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (whole && catalog == ImportCatalog.BOOKS) {
+            // Subject folders created while events were lost are not watched yet
+            registerFanlar();
+        }
+        try {
+            importJobService.start(catalog, describe(catalog, batch), progress -> sync(catalog, batch, progress));
+        } catch (IllegalStateException e) {
+            // Someone started an import in between; try again next round
+            synchronized (pending) {
+                if (batch == null) rescan.add(catalog);
+                else pending.computeIfAbsent(catalog, c -> new LinkedHashSet<>()).addAll(batch);
+            }
+        }
+    }
+
+    private void sync(ImportCatalog catalog, Set<String> batch, ImportProgress progress) {
+        switch (catalog) {
+            case BOOKS -> catalogSyncService.syncFanlar(progress, batch);
+            case BADIIY -> catalogSyncService.syncBadiiy(progress, batch);
+            case AUDIO -> catalogSyncService.syncAudio(progress, batch);
+        }
+    }
+
+    private String describe(ImportCatalog catalog, Set<String> batch) {
+        String root = switch (catalog) {
+            case BOOKS -> CatalogImportService.FANLAR_ROOT;
+            case BADIIY -> CatalogImportService.BADIIY_ROOT;
+            case AUDIO -> CatalogImportService.AUDIO_ROOT;
+        };
+        if (batch == null) return "Auto-sync of " + root + " after missed file events";
+        String unit = catalog == ImportCatalog.BOOKS ? " subject folder(s)" : " file(s)";
+        return "Auto-sync of " + batch.size() + unit + " in " + root;
+    }
+
+    private void register(Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try {
+            directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private void registerFanlar() {
+        register(fanlarRoot);
+        File[] subjectFolders = fanlarRoot.toFile().listFiles(File::isDirectory);
+        if (subjectFolders != null) {
+            for (File subjectFolder : subjectFolders) {
+                registerSubject(subjectFolder.toPath());
+            }
+        }
+    }
+
+    private void registerSubject(Path subjectFolder) {
+        register(subjectFolder);
+        register(subjectFolder.resolve("adabiyotlar"));
+    }
+
+    // Same form as File.getAbsolutePath(), which is what the manifest stores
+    private static Path root(String folder) {
+        return new File(folder).getAbsoluteFile().toPath();
+    }
+}
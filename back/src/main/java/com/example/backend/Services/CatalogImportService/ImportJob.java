@@ -0,0 +1,39 @@
+package com.example.backend.Services.CatalogImportService;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+public class ImportJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final ImportCatalog catalog;
+    private final String description;
+    private final ImportProgress progress = new ImportProgress();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    @Setter
+    private volatile Status status = Status.RUNNING;
+    @Setter
+    private volatile String message;
+    @Setter
+    private volatile LocalDateTime finishedAt;
+
+    public ImportJob(ImportCatalog catalog, String description) {
+        this.catalog = catalog;
+        this.description = description;
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.backend.Services.CatalogImportService;
+
+import com.example.backend.DTO.ImportJobDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs catalog imports in the background. Callers get an {@link ImportJob}
+ * back immediately and follow it by id (polling or SSE).
+ */
+@Service
+public class ImportJobService {
+
+    // Finished jobs kept around so their final status can still be read
+    private static final int HISTORY_SIZE = 50;
+    private static final long SSE_INTERVAL_MILLIS = 1000;
+
+    private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-import-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<ImportCatalog, ImportJob> active = new EnumMap<>(ImportCatalog.class);
+    private final Map<UUID, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, ImportJob> eldest) {
+            return size() > HISTORY_SIZE && eldest.getValue().isFinished();
+        }
+    });
+
+    /**
+     * @throws IllegalStateException if an import of the same catalog is still running
+     */
+    public ImportJob start(ImportCatalog catalog, String description, Consumer<ImportProgress> task) {
+        ImportJob job;
+        synchronized (active) {
+            ImportJob running = active.get(catalog);
+            if (running != null && !running.isFinished()) {
+                throw new IllegalStateException("An import of " + catalog + " is already running: " + running.getId());
+            }
+            job = new ImportJob(catalog, description);
+            active.put(catalog, job);
+            jobs.put(job.getId(), job);
+        }
+        workers.submit(() -> run(job, task));
+        return job;
+    }
+
+    public Optional<ImportJob> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<ImportJob> findAll() {
+        synchronized (jobs) {
+            List<ImportJob> list = new ArrayList<>(jobs.values());
+            Collections.reverse(list);
+            return list;
+        }
+    }
+
+    public boolean isRunning(ImportCatalog catalog) {
+        synchronized (active) {
+            ImportJob job = active.get(catalog);
+            return job != null && !job.isFinished();
+        }
+    }
+
+    public Optional<ImportJob> cancel(UUID id) {
+        ImportJob job = jobs.get(id);
+        if (job != null && !job.isFinished()) {
+            job.getProgress().requestCancel();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Pushes a "progress" event every second until the job finishes, then completes the stream.
+     */
+    public SseEmitter subscribe(ImportJob job) {
+        SseEmitter emitter = new SseEmitter(0L);
+        ScheduledFuture<?>[] tick = new ScheduledFuture<?>[1];
+        tick[0] = ticker.scheduleAtFixedRate(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(ImportJobDTO.of(job)));
+                if (job.isFinished()) {
+                    emitter.complete();
+                    tick[0].cancel(false);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+                tick[0].cancel(false);
+            }
+        }, 0, SSE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        emitter.onCompletion(() -> tick[0].cancel(false));
+        emitter.onTimeout(() -> tick[0].cancel(false));
+        return emitter;
+    }
+
+    private void run(ImportJob job, Consumer<ImportProgress> task) {
+        try {
+            task.accept(job.getProgress());
+            job.getProgress().finish();
+            job.setStatus(ImportJob.Status.COMPLETED);
+            job.setMessage("Finished: " + job.getProgress());
+        } catch (ImportCancelledException e) {
+            job.getProgress().finish();
+            job.setStatus(ImportJob.Status.CANCELLED);
+            job.setMessage("Cancelled: " + job.getProgress());
+        } catch (Exception e) {
+            e.printStackTrace();
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setMessage(e.getMessage());
+        } finally {
+            job.getProgress().finish();
+            job.setFinishedAt(LocalDateTime.now());
+            System.out.println("Import job " + job.getId() + " (" + job.getCatalog() + ") " + job.getStatus() + ": " + job.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        ticker.shutdownNow();
+    }
+}
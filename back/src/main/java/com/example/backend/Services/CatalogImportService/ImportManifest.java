@@ -0,0 +1,254 @@
+package com.example.backend.Services.CatalogImportService;
+
+import com.example.backend.Entity.ImportManifestEntry;
+import com.example.backend.Entity.ImportManifestEntry.Kind;
+import com.example.backend.Repository.ImportManifestRepo;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compares import folders with what the previous run saw. A file whose size and
+ * mtime match its manifest entry is taken as unchanged without being read; only
+ * new or modified files are hashed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportManifest {
+
+    private static final int HASH_BUFFER = 64 * 1024;
+
+    private final ImportManifestRepo manifestRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public boolean isEmpty(Kind kind) {
+        return !manifestRepo.existsByKind(kind);
+    }
+
+    public Plan plan(Kind kind, List<File> files, ImportProgress progress) {
+        return plan(kind, files, path -> true, progress);
+    }
+
+    /**
+     * Like {@link #plan(Kind, List, ImportProgress)} for part of a folder: {@code files} is
+     * everything on disk within the scope, and only known paths matching {@code inScope}
+     * can be reported as vanished.
+     */
+    public Plan plan(Kind kind, List<File> files, Predicate<String> inScope, ImportProgress progress) {
+        Map<String, ImportManifestEntry> known = byPath(kind);
+        known.keySet().removeIf(inScope.negate());
+        Plan plan = new Plan(kind);
+        for (File file : files) {
+            progress.checkCancelled();
+            String path = file.getAbsolutePath();
+            long size = file.length();
+            long modifiedAt = file.lastModified();
+            ImportManifestEntry entry = known.remove(path);
+            if (entry != null && entry.sameFile(size, modifiedAt)) continue;
+
+            String hash;
+            try {
+                hash = hash(file);
+            } catch (IOException e) {
+                // Leave the file as it was recorded; the next run will look at it again
+                progress.error("Error reading " + path + ": " + e.getMessage());
+                continue;
+            }
+            FileState state = new FileState(file, path, size, modifiedAt, hash);
+            if (entry == null || entry.isDeleted()) {
+                if (entry != null) plan.tombstones.put(path, entry);
+                plan.added.add(state);
+            } else if (hash.equals(entry.getContentHash())) {
+                // Touched but not modified
+                plan.record(entry, state, entry.getEntityId());
+            } else {
+                plan.changed.add(new Changed(entry, state));
+            }
+        }
+        for (ImportManifestEntry entry : known.values()) {
+            if (!entry.isDeleted()) plan.vanished.add(entry);
+        }
+        return plan;
+    }
+
+    /**
+     * Writes the entries the plan touched. Call it in the same transaction as the row changes.
+     */
+    public void save(Plan plan) {
+        manifestRepo.saveAll(plan.dirty);
+    }
+
+    /**
+     * Replaces the manifest of {@code kind} with the given rows (path → row id), e.g. after
+     * a full import or to adopt rows a full import made before the manifest existed.
+     * Hashes of files that still match their old entry are reused.
+     */
+    public void rebuild(Kind kind, Map<String, Integer> entityIdsByPath, ImportProgress progress) {
+        Map<String, ImportManifestEntry> known = byPath(kind);
+        List<ImportManifestEntry> entries = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Integer> row : entityIdsByPath.entrySet()) {
+            progress.checkCancelled();
+            File file = new File(row.getKey());
+            if (!file.isFile()) continue;
+            long size = file.length();
+            long modifiedAt = file.lastModified();
+            ImportManifestEntry entry = known.remove(row.getKey());
+            if (entry == null) {
+                entry = ImportManifestEntry.builder().kind(kind).path(row.getKey()).build();
+            }
+            try {
+                if (!entry.sameFile(size, modifiedAt) || entry.getContentHash() == null) {
+                    entry.setContentHash(hash(file));
+                }
+            } catch (IOException e) {
+                progress.error("Error reading " + row.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            entry.setSize(size);
+            entry.setModifiedAt(modifiedAt);
+            entry.setEntityId(row.getValue());
+            entry.setDeleted(false);
+            entry.setSyncedAt(now);
+            entries.add(entry);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            manifestRepo.deleteAllInBatch(known.values());
+            manifestRepo.saveAll(entries);
+        });
+    }
+
+    /**
+     * path → id of the rows of {@code table} whose file lies under {@code root}.
+     */
+    public Map<String, Integer> rowsUnder(String table, File root) {
+        String prefix = root.getAbsolutePath() + File.separator;
+        Map<String, Integer> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT id, path FROM " + table + " WHERE path IS NOT NULL", rs -> {
+            String path = rs.getString("path");
+            if (path.startsWith(prefix)) rows.putIfAbsent(path, rs.getInt("id"));
+        });
+        return rows;
+    }
+
+    static String hash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Map<String, ImportManifestEntry> byPath(Kind kind) {
+        return manifestRepo.findAllByKind(kind).stream()
+                .collect(Collectors.toMap(ImportManifestEntry::getPath, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    public record FileState(File file, String path, long size, long modifiedAt, String contentHash) {
+    }
+
+    public record Changed(ImportManifestEntry entry, FileState state) {
+    }
+
+    /**
+     * What differs between the folder and the manifest. Applying it is up to the
+     * caller; the {@code record*} methods keep the manifest in step.
+     */
+    @Getter
+    public static class Plan {
+
+        private final Kind kind;
+        // New paths, including ones that come back after being tombstoned
+        private final List<FileState> added = new ArrayList<>();
+        // Same path, different content
+        private final List<Changed> changed = new ArrayList<>();
+        // Known paths that are no longer on disk
+        private final List<ImportManifestEntry> vanished = new ArrayList<>();
+
+        private final Map<String, ImportManifestEntry> tombstones = new HashMap<>();
+        private final List<ImportManifestEntry> dirty = new ArrayList<>();
+        private Map<String, Deque<ImportManifestEntry>> vanishedByHash;
+
+        Plan(Kind kind) {
+            this.kind = kind;
+        }
+
+        public boolean hasRowChanges() {
+            return !added.isEmpty() || !changed.isEmpty() || !vanished.isEmpty();
+        }
+
+        /**
+         * A vanished entry with the same content as {@code state}: the file was moved or
+         * renamed, so its row can be kept. Removes the entry from {@link #getVanished()}.
+         */
+        public ImportManifestEntry takeRenameSource(FileState state) {
+            if (vanishedByHash == null) {
+                vanishedByHash = new HashMap<>();
+                for (ImportManifestEntry entry : vanished) {
+                    vanishedByHash.computeIfAbsent(entry.getContentHash(), h -> new ArrayDeque<>()).add(entry);
+                }
+            }
+            Deque<ImportManifestEntry> candidates = vanishedByHash.get(state.contentHash());
+            ImportManifestEntry source = candidates == null ? null : candidates.poll();
+            if (source != null) vanished.remove(source);
+            return source;
+        }
+
+        public void recordInserted(FileState state, Integer entityId) {
+            ImportManifestEntry entry = tombstones.remove(state.path());
+            if (entry == null) {
+                entry = ImportManifestEntry.builder().kind(kind).path(state.path()).build();
+            }
+            record(entry, state, entityId);
+        }
+
+        public void recordRenamed(ImportManifestEntry source, FileState state) {
+            recordDeleted(source);
+            recordInserted(state, source.getEntityId());
+        }
+
+        public void recordChanged(Changed changed) {
+            record(changed.entry(), changed.state(), changed.entry().getEntityId());
+        }
+
+        public void recordDeleted(ImportManifestEntry entry) {
+            entry.setDeleted(true);
+            entry.setSyncedAt(LocalDateTime.now());
+            dirty.add(entry);
+        }
+
+        private void record(ImportManifestEntry entry, FileState state, Integer entityId) {
+            entry.setSize(state.size());
+            entry.setModifiedAt(state.modifiedAt());
+            entry.setContentHash(state.contentHash());
+            entry.setEntityId(entityId);
+            entry.setDeleted(false);
+            entry.setSyncedAt(LocalDateTime.now());
+            dirty.add(entry);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.backend.Services.CatalogImportService;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters an import run updates while it works, plus its cancellation flag.
+ * Safe to read from other threads.
+ */
+@Getter
+public class ImportProgress {
+
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsDeleted = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final long startedAtMillis = System.currentTimeMillis();
+    private volatile long finishedAtMillis;
+    private volatile boolean cancelRequested;
+    private volatile boolean uncancellable;
+
+    public void fileScanned() {
+        filesScanned.incrementAndGet();
+    }
+
+    public void rowsInserted(long count) {
+        rowsInserted.addAndGet(count);
+    }
+
+    public void rowsUpdated(long count) {
+        rowsUpdated.addAndGet(count);
+    }
+
+    public void rowsDeleted(long count) {
+        rowsDeleted.addAndGet(count);
+    }
+
+    public void error(String message) {
+        errors.incrementAndGet();
+        System.err.println(message);
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Called by an import engine before it starts replacing data: from here on the run
+     * is finished even if cancellation is requested, since stopping halfway would leave
+     * the catalog and its manifest out of step.
+     */
+    public void markUncancellable() {
+        uncancellable = true;
+    }
+
+    /**
+     * Called by import engines between units of work.
+     *
+     * @throws ImportCancelledException once cancellation was requested, unless the run
+     *                                  is past {@link #markUncancellable()}
+     */
+    public void checkCancelled() {
+        if (uncancellable) return;
+        if (cancelRequested || Thread.currentThread().isInterrupted()) {
+            throw new ImportCancelledException();
+        }
+    }
+
+    public void finish() {
+        finishedAtMillis = System.currentTimeMillis();
+    }
+
+    public long elapsedMillis() {
+        long end = finishedAtMillis != 0 ? finishedAtMillis : System.currentTimeMillis();
+        return end - startedAtMillis;
+    }
+
+    public double rowsPerSecond() {
+        long elapsed = elapsedMillis();
+        return elapsed == 0 ? 0 : rowsInserted.get() * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "files scanned: " + filesScanned.get()
+                + ", rows inserted: " + rowsInserted.get()
+                + ", updated: " + rowsUpdated.get()
+                + ", deleted: " + rowsDeleted.get()
+                + ", errors: " + errors.get()
+                + ", took " + elapsedMillis() + " ms";
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.backend.Services.CatalogImportService;
+
+import com.example.backend.Services.CatalogImportService.CatalogImportService.FacultyRow;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Reads the faculties a subject belongs to from its yonalish.xlsx: column B faculty
+ * code, C faculty name, D education type id (1 when empty). Only the first sheet is
+ * streamed through POI's SAX reader; no workbook is built in memory.
+ * <p>
+ * Parsed rows are cached by file content hash, so subjects sharing an identical sheet
+ * pay for parsing it once.
+ */
+@Component
+public class YonalishReader {
+
+    private static final int CACHE_SIZE = 1024;
+
+    private final Map<String, List<FacultyRow>> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<FacultyRow>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    public List<FacultyRow> read(File file, ImportProgress progress) {
+        String hash;
+        try {
+            hash = ImportManifest.hash(file);
+        } catch (IOException e) {
+            progress.error("Error processing " + file + ": " + e.getMessage());
+            return List.of();
+        }
+        return read(file, hash, progress);
+    }
+
+    /**
+     * @param contentHash SHA-256 of the file, as {@link ImportManifest} records it
+     */
+    public List<FacultyRow> read(File file, String contentHash, ImportProgress progress) {
+        List<FacultyRow> cached = cache.get(contentHash);
+        if (cached != null) return cached;
+        try {
+            List<FacultyRow> rows = List.copyOf(parse(file, progress));
+            cache.put(contentHash, rows);
+            return rows;
+        } catch (Exception e) {
+            progress.error("Error processing " + file + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Collection<FacultyRow> parse(File file, ImportProgress progress) throws Exception {
+        RowCollector collector = new RowCollector(file, progress);
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return List.of();
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), null, new ReadOnlySharedStringsTable(pkg),
+                        collector, new RawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+        return collector.rows.values();
+    }
+
+    /**
+     * One row at a time; keeps the first row per faculty code, like the old DOM reader.
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final File file;
+        private final ImportProgress progress;
+        private final Map<String, FacultyRow> rows = new LinkedHashMap<>();
+        // Columns A-D of the current row
+        private final String[] cells = new String[4];
+
+        RowCollector(File file, ImportProgress progress) {
+            this.file = file;
+            this.progress = progress;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null) return;
+            int column = new CellReference(cellReference).getCol();
+            if (column < cells.length) cells[column] = formattedValue;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            String code = number(cells[1]);
+            if (code == null || cells[2] == null) return;
+            try {
+                rows.putIfAbsent(code, new FacultyRow(code, cells[2], educationTypeId(cells[3])));
+            } catch (NumberFormatException e) {
+                progress.error("Error processing row " + rowNum + " of " + file + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+        }
+
+        // Faculty codes are numeric cells; header and text rows are skipped
+        private static String number(String value) {
+            if (value == null) return null;
+            try {
+                return String.valueOf((int) Double.parseDouble(value.trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Integer educationTypeId(String value) {
+            if (value == null || value.isBlank()) return 1;
+            return (int) Double.parseDouble(value.trim());
+        }
+    }
+
+    /**
+     * Hands numbers over as written in the file, ignoring the cell's display format.
+     */
+    private static final class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return NumberToTextConverter.toText(value);
+        }
+    }
+}
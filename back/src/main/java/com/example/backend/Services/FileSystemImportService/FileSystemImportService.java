@@ -2,6 +2,8 @@ package com.example.backend.Services.FileSystemImportService;
 
 import com.example.backend.Entity.*;
 import com.example.backend.Repository.*;
+import com.example.backend.Services.AttachmentService.AttachmentStorage;
+import com.example.backend.Services.CatalogImportService.ImportProgress;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -9,7 +11,6 @@ import java.io.*;
 import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -17,14 +18,12 @@ public class FileSystemImportService {
 
     private final BookRepo bookRepo;
     private final SubjectRepo subjectRepo;
-    private final AttachmentRepo attachmentRepo;
+    private final AttachmentStorage attachmentStorage;
 
     private static final String ROOT = "./fanlar";
 //    String ROOT = System.getProperty("user.home") + "/Desktop/fanlar";
 
-    private static final String STORAGE_ROOT = "backend/files";
-
-    public void importBooksFromFanlar() throws IOException {
+    public void importBooksFromFanlar(ImportProgress progress) throws IOException {
 
         File root = new File(ROOT);
         if (!root.exists() || !root.isDirectory()) {
@@ -32,6 +31,7 @@ public class FileSystemImportService {
         }
 
         for (File subjectDir : root.listFiles(File::isDirectory)) {
+            progress.checkCancelled();
 
             Subject subject = subjectRepo.findByName(subjectDir.getName())
                     .orElseGet(() -> subjectRepo.save(
@@ -46,16 +46,22 @@ public class FileSystemImportService {
             if (!booksDir.exists()) continue;
 
             for (File bookFile : booksDir.listFiles(File::isFile)) {
-                processBookFile(bookFile, subject);
+                progress.checkCancelled();
+                progress.fileScanned();
+                if (processBookFile(bookFile, subject)) {
+                    progress.rowsInserted(1);
+                } else {
+                    progress.error("Skipped file: " + bookFile.getName() + " due to insufficient details.");
+                }
             }
         }
     }
 
-    private void processBookFile(File file, Subject subject) throws IOException {
+    private boolean processBookFile(File file, Subject subject) throws IOException {
 
         // filename format: name_author_publisher_genre.pdf
         String[] parts = file.getName().split("_");
-        if (parts.length < 4) return;
+        if (parts.length < 4) return false;
 
         String name = parts[0];
         String author = parts[1];
@@ -76,23 +82,12 @@ public class FileSystemImportService {
                 .build();
 
         bookRepo.save(book);
+        return true;
     }
 
     private Attachment saveFileAsAttachment(File source, String prefix) throws IOException {
-
-        UUID id = UUID.randomUUID();
-        String storedName = source.getName();
-        File target = new File(STORAGE_ROOT + prefix + "/" + storedName);
-
-        target.getParentFile().mkdirs();
-        Files.copy(source.toPath(), target.toPath());
-
-        Attachment attachment = Attachment.builder()
-                .id(id)
-                .prefix(prefix)
-                .name(storedName)
-                .build();
-
-        return attachmentRepo.save(attachment);
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            return attachmentStorage.store(in, prefix, source.getName());
+        }
     }
 }
@@ -0,0 +1,124 @@
+package com.example.backend.Services.ImageCacheService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the small images in ./libraryImages in memory, least recently used first out
+ * once {@code library.images.cache-max-bytes} is reached. A cached image is checked
+ * against the file's size and mtime at most every {@value #REVALIDATE_MILLIS} ms, so hot
+ * images are served without touching the file system in between. Files above
+ * {@value #MAX_ENTRY_BYTES} bytes are not cached.
+ */
+@Component
+public class StaticImageCache {
+
+    private static final Path ROOT = Paths.get("./libraryImages").normalize();
+    private static final long REVALIDATE_MILLIS = 5000;
+    private static final long MAX_ENTRY_BYTES = 2 * 1024 * 1024;
+
+    private final long maxBytes;
+    // Guarded by this
+    private final LinkedHashMap<String, Image> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public StaticImageCache(@Value("${library.images.cache-max-bytes:64MB}") DataSize maxBytes) {
+        this.maxBytes = maxBytes.toBytes();
+    }
+
+    /**
+     * @param content null when the file is too large to cache; serve {@code path} instead
+     */
+    public record Image(Path path, byte[] content, String contentType, String eTag,
+                        long lastModified, long size, long checkedAt) {
+
+        Image checkedAt(long now) {
+            return new Image(path, content, contentType, eTag, lastModified, size, now);
+        }
+
+        long weight() {
+            return content == null ? 0 : content.length;
+        }
+    }
+
+    /**
+     * @return the image, or null if there is no such file
+     */
+    public Image get(String name) throws IOException {
+        Path path = ROOT.resolve(name).normalize();
+        if (!path.startsWith(ROOT) || path.equals(ROOT)) return null;
+        String key = path.toString();
+
+        long now = System.currentTimeMillis();
+        Image cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null && now - cached.checkedAt() < REVALIDATE_MILLIS) {
+            return cached;
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            remove(key);
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            remove(key);
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        if (cached != null && cached.lastModified() == lastModified && cached.size() == size) {
+            Image revalidated = cached.checkedAt(now);
+            put(key, revalidated);
+            return revalidated;
+        }
+
+        String contentType = Files.probeContentType(path);
+        if (contentType == null) {
+            contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+        }
+        String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        byte[] content = size <= MAX_ENTRY_BYTES ? Files.readAllBytes(path) : null;
+        Image image = new Image(path, content, contentType, eTag, lastModified, size, now);
+        if (content != null) {
+            put(key, image);
+        } else {
+            remove(key);
+        }
+        return image;
+    }
+
+    private synchronized void put(String key, Image image) {
+        Image old = entries.put(key, image);
+        totalBytes += image.weight() - (old == null ? 0 : old.weight());
+        Iterator<Map.Entry<String, Image>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().weight();
+            eldest.remove();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Image old = entries.remove(key);
+        if (old != null) totalBytes -= old.weight();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.backend.Services.ReportService;
+
+import com.example.backend.Entity.Book;
+import com.example.backend.Projection.HisobotRowProjection;
+import com.example.backend.Repository.BookRepo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class BookReportService {
+
+    private final BookRepo bookRepo;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    private static final int NDJSON_FLUSH_EVERY = 100;
+
+    // Only this many rows stay in memory; older rows are flushed to a temp file
+    private static final int ROW_WINDOW = 200;
+
+    private static final String[] HEADERS = {
+            "№",
+            "Adabiyot nomi",
+            "Muallif",
+            "Nashriyot",
+            "Adabiyot turi",
+            "Silka",
+            "Yo'nalish",
+            "Fan",
+            "Kutubxonada bor",
+            "Soni"
+    };
+
+    // Fixed widths in characters; autoSizeColumn would need every row in memory
+    private static final int[] COLUMN_WIDTHS = {8, 50, 30, 30, 20, 36, 45, 40, 16, 8};
+
+    /**
+     * Writes the books report (faculty → subject → book) as xlsx straight to {@code out}.
+     * Rows come from a single ordered query read through a cursor, so the
+     * transaction has to stay open for the whole export.
+     */
+    @Transactional(readOnly = true)
+    public void writeHisobot(OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Books Report");
+
+            for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
+
+            // ===== HEADER STYLE =====
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+
+            // ===== HEADER ROW =====
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+
+            int rowIdx = 1;
+            int counter = 1;
+
+            try (Stream<HisobotRowProjection> rows = bookRepo.streamHisobotRows()) {
+                Iterator<HisobotRowProjection> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    HisobotRowProjection book = iterator.next();
+                    Row row = sheet.createRow(rowIdx++);
+
+                    row.createCell(0).setCellValue(counter++);
+                    row.createCell(1).setCellValue(book.getName());
+                    row.createCell(2).setCellValue(book.getAuthor());
+                    row.createCell(3).setCellValue(book.getPublisher());
+                    row.createCell(4).setCellValue(book.getGenre());
+                    row.createCell(5).setCellValue("https://library.bxu.uz/book/" + book.getBookId());
+                    row.createCell(6).setCellValue(book.getFacultyName());
+                    row.createCell(7).setCellValue(book.getSubjectName());
+                    row.createCell(8).setCellValue(
+                            Boolean.TRUE.equals(book.getIsHaveLibrary()) ? "Ha" : "Yo‘q"
+                    );
+                    row.createCell(9).setCellValue(
+                            book.getLibraryCount() != null ? book.getLibraryCount() : 0
+                    );
+                }
+            }
+
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * Writes every book as one JSON document per line (NDJSON), newest first.
+     * Rows are read through a cursor; every {@value #NDJSON_FLUSH_EVERY} rows the output is
+     * flushed and the persistence context cleared. Clearing, not detaching each book: detach
+     * does not cascade to the subject, shelf and attachments fetched with it, so those would
+     * stay managed and memory would still grow with the catalog.
+     */
+    @Transactional(readOnly = true)
+    public void writeBooksNdjson(OutputStream out, Function<Book, ?> mapper) throws IOException {
+        try (Stream<Book> books = bookRepo.streamAllOrderByCreatedAt();
+             SequenceWriter writer = objectMapper.writer()
+                     .withRootValueSeparator("\n")
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .writeValues(out)) {
+            Iterator<Book> iterator = books.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                writer.write(mapper.apply(book));
+                if (++written % NDJSON_FLUSH_EVERY == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+            if (written > 0) {
+                writer.flush();
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.backend.Services.SearchService;
+
+import com.example.backend.Entity.Book;
+import com.example.backend.Entity.Subject;
+import com.example.backend.Repository.BookRepo;
+import com.example.backend.Repository.SubjectRepo;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Search box suggestions for book names, authors, publishers and subject names, answered
+ * from in-memory tries without touching the database. The tries are filled from
+ * {@link BookRepo} and {@link SubjectRepo} once the application is up and then follow
+ * {@link CatalogChangedEvent}s: single writes replace the entity's old values, bulk
+ * changes reload that catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    public enum Field {
+        NAME, AUTHOR, PUBLISHER, SUBJECT;
+
+        /**
+         * @throws IllegalArgumentException for anything but name / author / publisher / subject
+         */
+        public static Field parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public static final int MAX_LIMIT = PrefixTrie.TOP;
+
+    private final BookRepo bookRepo;
+    private final SubjectRepo subjectRepo;
+
+    private volatile Tries tries = new Tries();
+    // What each entity put into the tries, so an update or delete can take it out again
+    private final Map<Integer, BookValues> books = new HashMap<>();
+    private final Map<Integer, String> subjects = new HashMap<>();
+
+    private record BookValues(String name, String author, String publisher) {
+    }
+
+    private static final class Tries {
+        final Map<Field, PrefixTrie> byField = new EnumMap<>(Field.class);
+
+        Tries() {
+            for (Field field : Field.values()) {
+                byField.put(field, new PrefixTrie());
+            }
+        }
+
+        PrefixTrie get(Field field) {
+            return byField.get(field);
+        }
+    }
+
+    /**
+     * Up to {@code limit} suggestions per field, most frequent first.
+     */
+    public Map<Field, List<String>> complete(String prefix, Set<Field> fields, int limit) {
+        Tries current = tries;
+        Map<Field, List<String>> suggestions = new EnumMap<>(Field.class);
+        for (Field field : fields) {
+            suggestions.put(field, current.get(field).complete(prefix, limit));
+        }
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Tries fresh = new Tries();
+        books.clear();
+        subjects.clear();
+        loadBooks(fresh);
+        loadSubjects(fresh);
+        fresh.byField.values().forEach(PrefixTrie::warmUp);
+        tries = fresh;
+        System.out.println("Autocomplete: " + books.size() + " books, " + subjects.size()
+                + " subjects in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.concerns(Book.class)) {
+            if (event.getKind() == CatalogChangedEvent.Kind.BULK) {
+                reloadBooks();
+                return;
+            }
+            Book book = (Book) event.getEntity();
+            removeBook(tries, book.getId());
+            if (event.getKind() != CatalogChangedEvent.Kind.REMOVED) {
+                addBook(tries, book.getId(), new BookValues(book.getName(), book.getAuthor(), book.getPublisher()));
+            }
+        } else if (event.concerns(Subject.class)) {
+            if (event.getKind() == CatalogChangedEvent.Kind.BULK) {
+                reloadSubjects();
+                return;
+            }
+            Subject subject = (Subject) event.getEntity();
+            removeSubject(tries, subject.getId());
+            if (event.getKind() != CatalogChangedEvent.Kind.REMOVED) {
+                addSubject(tries, subject.getId(), subject.getName());
+            }
+        }
+    }
+
+    // Bulk changes rebuild one catalog's tries aside and swap them in, keeping the other's
+    private void reloadBooks() {
+        Tries fresh = new Tries();
+        fresh.byField.put(Field.SUBJECT, tries.get(Field.SUBJECT));
+        books.clear();
+        loadBooks(fresh);
+        fresh.get(Field.NAME).warmUp();
+        fresh.get(Field.AUTHOR).warmUp();
+        fresh.get(Field.PUBLISHER).warmUp();
+        tries = fresh;
+    }
+
+    private void reloadSubjects() {
+        Tries fresh = new Tries();
+        fresh.byField.put(Field.NAME, tries.get(Field.NAME));
+        fresh.byField.put(Field.AUTHOR, tries.get(Field.AUTHOR));
+        fresh.byField.put(Field.PUBLISHER, tries.get(Field.PUBLISHER));
+        subjects.clear();
+        loadSubjects(fresh);
+        fresh.get(Field.SUBJECT).warmUp();
+        tries = fresh;
+    }
+
+    // Counted first, so an author on 40 books is inserted once rather than 40 times
+    private void loadBooks(Tries target) {
+        Map<String, Integer> names = new HashMap<>();
+        Map<String, Integer> authors = new HashMap<>();
+        Map<String, Integer> publishers = new HashMap<>();
+        for (Object[] row : bookRepo.findAllNamesAuthorsPublishers()) {
+            BookValues values = new BookValues((String) row[1], (String) row[2], (String) row[3]);
+            books.put((Integer) row[0], values);
+            count(names, values.name());
+            count(authors, values.author());
+            count(publishers, values.publisher());
+        }
+        names.forEach(target.get(Field.NAME)::add);
+        authors.forEach(target.get(Field.AUTHOR)::add);
+        publishers.forEach(target.get(Field.PUBLISHER)::add);
+    }
+
+    private void loadSubjects(Tries target) {
+        Map<String, Integer> names = new HashMap<>();
+        for (Subject subject : subjectRepo.findAll()) {
+            subjects.put(subject.getId(), subject.getName());
+            count(names, subject.getName());
+        }
+        names.forEach(target.get(Field.SUBJECT)::add);
+    }
+
+    private static void count(Map<String, Integer> counts, String value) {
+        if (value != null && !value.isBlank()) counts.merge(value.trim(), 1, Integer::sum);
+    }
+
+    private void addBook(Tries target, Integer id, BookValues values) {
+        books.put(id, values);
+        target.get(Field.NAME).add(values.name());
+        target.get(Field.AUTHOR).add(values.author());
+        target.get(Field.PUBLISHER).add(values.publisher());
+    }
+
+    private void removeBook(Tries target, Integer id) {
+        BookValues old = books.remove(id);
+        if (old == null) return;
+        target.get(Field.NAME).remove(old.name());
+        target.get(Field.AUTHOR).remove(old.author());
+        target.get(Field.PUBLISHER).remove(old.publisher());
+    }
+
+    private void addSubject(Tries target, Integer id, String name) {
+        subjects.put(id, name);
+        target.get(Field.SUBJECT).add(name);
+    }
+
+    private void removeSubject(Tries target, Integer id) {
+        String old = subjects.remove(id);
+        if (old != null) target.get(Field.SUBJECT).remove(old);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.backend.Services.SearchService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * The filtered books list with, on request, the number of matching books per subject,
+ * book type, shelf, genre and library availability.
+ * <p>
+ * Without text filters the page, total and counts come from {@link BookFilterIndex}.
+ * With text and facets the matching rows are collected once in SQL; the page, the total
+ * and all facet counts come from that one set in a single statement (GROUPING SETS), so
+ * the counts always agree with the active filters. Without facets it is a plain
+ * ORDER BY ... LIMIT, plus a COUNT only when the page does not tell the total. Only
+ * predicates for filters that are set are added, rather than the {@code :x IS NULL OR ...}
+ * form the repository queries use.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookBrowseService {
+
+    // Facet name -> hits column, in GROUPING() argument order
+    private static final Map<String, String> FACETS = new LinkedHashMap<>();
+
+    static {
+        FACETS.put("subject", "subject_id");
+        FACETS.put("bookType", "book_type");
+        FACETS.put("shelf", "shelf_id");
+        FACETS.put("genre", "genre");
+        FACETS.put("inLibrary", "in_library");
+    }
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String COLUMNS = String.join(", ", FACETS.values());
+    private static final int ALL_GROUPED = (1 << FACETS.size()) - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookFilterIndex bookFilterIndex;
+
+    public record Result(List<Integer> ids, long total, Map<String, Map<String, Long>> facets) {
+    }
+
+    /**
+     * Ids of the books on the requested page, best match (or newest) first, with the total;
+     * {@code facets} is null unless {@code withFacets}.
+     *
+     * @throws IllegalArgumentException if {@code page} is negative or {@code size} is not
+     *                                  between 1 and {@value #MAX_SIZE}
+     */
+    public Result browse(BookFilter filter, int page, int size, boolean withFacets) {
+        if (page < 0 || size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_SIZE);
+        }
+        if (!filter.hasTextFilters() && bookFilterIndex.isReady()) {
+            return bookFilterIndex.browse(filter, page, size, withFacets);
+        }
+        String tsQuery = filter.hasText() ? SearchQueries.toPrefixTsQuery(filter.q()) : "";
+        if (tsQuery.isEmpty()) {
+            return query(filter, null, null, page, size, withFacets);
+        }
+        Result result = query(filter, tsQuery, null, page, size, withFacets);
+        if (result.total() > 0) return result;
+        // Same fallback as the plain list: typos and Cyrillic input go to the trigram search
+        return query(filter, null, SearchQueries.toSearchKey(filter.q()), page, size, withFacets);
+    }
+
+    private Result query(BookFilter filter, String tsQuery, String searchKey,
+                         int page, int size, boolean withFacets) {
+        List<Object> scoreArgs = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        String score = "0::real";
+        StringBuilder where = new StringBuilder("TRUE");
+        if (tsQuery != null) {
+            score = "ts_rank(b.search_vector, to_tsquery('simple', ?))";
+            scoreArgs.add(tsQuery);
+            where.append(" AND b.search_vector @@ to_tsquery('simple', ?)");
+            args.add(tsQuery);
+        } else if (searchKey != null) {
+            score = "word_similarity(?, b.search_key)";
+            scoreArgs.add(searchKey);
+            where.append(" AND (b.search_key LIKE '%' || ? || '%' OR ? <% b.search_key)");
+            args.add(searchKey);
+            args.add(searchKey);
+        }
+        like(where, args, "b.name", filter.title());
+        like(where, args, "b.author", filter.author());
+        like(where, args, "b.publisher", filter.publisher());
+        in(where, args, "b.subject_id", filter.subjectIds());
+        in(where, args, "b.book_type", filter.bookTypes());
+        in(where, args, "b.shelf_id", filter.shelfIds());
+        in(where, args, "b.genre", filter.genres());
+        if (filter.inLibrary() != null) {
+            in(where, args, "COALESCE(b.is_have_library, FALSE)", List.of(filter.inLibrary()));
+        }
+        if (!withFacets) {
+            return page(score, scoreArgs, where, args, page, size);
+        }
+
+        StringBuilder groupingSets = new StringBuilder("()");
+        for (String column : FACETS.values()) {
+            groupingSets.append(", (").append(column).append(')');
+        }
+        String sql = """
+                WITH hits AS MATERIALIZED (
+                    SELECT b.id, b.created_at, b.subject_id, b.book_type, b.shelf_id, b.genre,
+                           COALESCE(b.is_have_library, FALSE) AS in_library, %s AS score
+                    FROM book b
+                    WHERE %s
+                )
+                SELECT * FROM (
+                    SELECT id, NULL::integer AS grouping_set, NULL::integer AS subject_id, NULL::integer AS book_type,
+                           NULL::integer AS shelf_id, NULL::varchar AS genre, NULL::boolean AS in_library,
+                           NULL::bigint AS matches,
+                           row_number() OVER (ORDER BY score DESC, created_at DESC, id DESC) AS rank
+                    FROM hits
+                    ORDER BY rank
+                    LIMIT ? OFFSET ?
+                ) page
+                UNION ALL
+                SELECT NULL, GROUPING(%s), %s, COUNT(*), NULL
+                FROM hits
+                GROUP BY GROUPING SETS (%s)
+                ORDER BY rank NULLS LAST
+                """.formatted(score, where, COLUMNS, COLUMNS, groupingSets);
+        List<Object> queryArgs = new ArrayList<>(scoreArgs);
+        queryArgs.addAll(args);
+        queryArgs.add(size);
+        queryArgs.add((long) page * size);
+
+        List<Integer> ids = new ArrayList<>();
+        long[] total = {0};
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        FACETS.keySet().forEach(name -> facets.put(name, new LinkedHashMap<>()));
+        jdbcTemplate.query(sql, rs -> {
+            int groupingSet = rs.getInt("grouping_set");
+            if (rs.wasNull()) {
+                ids.add(rs.getInt("id"));
+                return;
+            }
+            long matches = rs.getLong("matches");
+            if (groupingSet == ALL_GROUPED) {
+                total[0] = matches;
+                return;
+            }
+            int i = 0;
+            for (Map.Entry<String, String> facet : FACETS.entrySet()) {
+                // GROUPING() has a 0 bit, counted from the left, for the column the set groups by
+                if ((groupingSet & (1 << (FACETS.size() - 1 - i))) == 0) {
+                    // Books without a value are not a facet value, as in BookFilterIndex
+                    Object value = rs.getObject(facet.getValue());
+                    if (value != null) facets.get(facet.getKey()).put(value.toString(), matches);
+                    return;
+                }
+                i++;
+            }
+        }, queryArgs.toArray());
+        return new Result(ids, total[0], facets);
+    }
+
+    private Result page(String score, List<Object> scoreArgs, CharSequence where, List<Object> whereArgs,
+                        int page, int size) {
+        String sql = """
+                SELECT b.id
+                FROM book b
+                WHERE %s
+                ORDER BY %s DESC, b.created_at DESC, b.id DESC
+                LIMIT ? OFFSET ?
+                """.formatted(where, score);
+        long offset = (long) page * size;
+        // Placeholders in statement order: WHERE before ORDER BY here, unlike the facets CTE
+        List<Object> args = new ArrayList<>(whereArgs);
+        args.addAll(scoreArgs);
+        args.add(size);
+        args.add(offset);
+        List<Integer> ids = jdbcTemplate.queryForList(sql, Integer.class, args.toArray());
+
+        // A short page that is not empty (or the first page) ends the list, so the total is known
+        if (ids.size() < size && (!ids.isEmpty() || page == 0)) {
+            return new Result(ids, offset + ids.size(), null);
+        }
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book b WHERE " + where,
+                Long.class, whereArgs.toArray());
+        return new Result(ids, total != null ? total : 0, null);
+    }
+
+    private static void like(StringBuilder where, List<Object> args, String column, String value) {
+        if (value == null || value.isEmpty()) return;
+        where.append(" AND LOWER(").append(column).append(") LIKE '%' || LOWER(?) || '%'");
+        args.add(value);
+    }
+
+    private static void in(StringBuilder where, List<Object> args, String column, List<?> values) {
+        if (values.isEmpty()) return;
+        where.append(" AND ").append(column).append(" IN (")
+                .append(String.join(", ", Collections.nCopies(values.size(), "?"))).append(')');
+        args.addAll(values);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.Services.SearchService;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Filters of the books list. Empty strings, nulls and empty lists mean "any". A book must
+ * match every filter that is set, and for list filters any one of the listed values
+ * (subjectIds = [3, 7] and bookTypes = [1] is "subject 3 or 7, and type 1").
+ *
+ * @param q         free text over name, author and publisher (full-text, trigram as fallback)
+ * @param inLibrary whether a paper copy is in the library (Book.isHaveLibrary, null counted as false)
+ */
+public record BookFilter(
+        String q,
+        String title,
+        String author,
+        String publisher,
+        List<Integer> subjectIds,
+        List<Integer> bookTypes,
+        List<Integer> shelfIds,
+        List<String> genres,
+        Boolean inLibrary
+) {
+
+    public BookFilter {
+        subjectIds = values(subjectIds);
+        bookTypes = values(bookTypes);
+        shelfIds = values(shelfIds);
+        genres = values(genres).stream().filter(genre -> !genre.isBlank()).map(String::trim).toList();
+    }
+
+    public boolean hasText() {
+        return q != null && !q.isBlank();
+    }
+
+    /**
+     * Whether any of the text filters (q, title, author, publisher) is set; only the others
+     * can be answered by {@link BookFilterIndex}.
+     */
+    public boolean hasTextFilters() {
+        return hasText() || notEmpty(title) || notEmpty(author) || notEmpty(publisher);
+    }
+
+    private static <T> List<T> values(List<T> values) {
+        return values != null ? values.stream().filter(Objects::nonNull).toList() : List.of();
+    }
+
+    private static boolean notEmpty(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
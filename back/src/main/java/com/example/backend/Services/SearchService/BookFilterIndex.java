@@ -0,0 +1,207 @@
+package com.example.backend.Services.SearchService;
+
+import com.example.backend.Entity.Book;
+import com.example.backend.Repository.BookRepo;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory secondary index of books by subject, book type, shelf, genre and library
+ * availability: one compressed bitmap of book ids per value. A filter is answered by
+ * OR-ing the bitmaps of the values asked for within an attribute and AND-ing across
+ * attributes; facet counts are intersection cardinalities. The database is only used to
+ * load the books of the final page. A book without a subject, shelf, ... is in no bitmap of
+ * that attribute, just as {@code IN (...)} never matches NULL in SQL.
+ * <p>
+ * Pages are ordered by id, newest first. Books get createdAt = now() when they are
+ * created and ids are assigned in the same order, so this is the createdAt DESC, id DESC
+ * order of the SQL listing.
+ * <p>
+ * Built once the application is up; follows {@link CatalogChangedEvent}s for books
+ * (single writes move the book between bitmaps, bulk changes rebuild the index). Writers
+ * are serialized on the instance, so a single write cannot be lost in a rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookFilterIndex {
+
+    enum Attribute {
+        SUBJECT("subject"), BOOK_TYPE("bookType"), SHELF("shelf"), GENRE("genre"), IN_LIBRARY("inLibrary");
+
+        // Facet name in responses, the same as BookBrowseService's
+        final String facet;
+
+        Attribute(String facet) {
+            this.facet = facet;
+        }
+    }
+
+    private final BookRepo bookRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Attribute, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Attribute.class);
+    // The values each book is indexed under, so an update or delete can take it out again
+    private final Map<Integer, Map<Attribute, String>> books = new HashMap<>();
+    private volatile boolean ready;
+
+    {
+        for (Attribute attribute : Attribute.values()) {
+            bitmaps.put(attribute, new TreeMap<>());
+        }
+    }
+
+    /**
+     * False until the first build has finished; callers use the database meanwhile.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of the books on the requested page, newest first, with the total and (if
+     * {@code withFacets}) the facet counts. Text filters of {@code filter} are ignored;
+     * see {@link BookFilter#hasTextFilters()}.
+     */
+    public BookBrowseService.Result browse(BookFilter filter, int page, int size, boolean withFacets) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = all.clone();
+            and(matches, Attribute.SUBJECT, filter.subjectIds());
+            and(matches, Attribute.BOOK_TYPE, filter.bookTypes());
+            and(matches, Attribute.SHELF, filter.shelfIds());
+            and(matches, Attribute.GENRE, filter.genres());
+            if (filter.inLibrary() != null) {
+                and(matches, Attribute.IN_LIBRARY, List.of(filter.inLibrary()));
+            }
+
+            int total = matches.getCardinality();
+            List<Integer> ids = new ArrayList<>();
+            long offset = (long) page * size;
+            // select(i) is the i-th smallest id; walking down from the largest gives newest first
+            for (long i = offset; i < Math.min(total, offset + size); i++) {
+                ids.add(matches.select((int) (total - 1 - i)));
+            }
+            return new BookBrowseService.Result(ids, total, withFacets ? facets(matches) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void and(RoaringBitmap matches, Attribute attribute, List<?> values) {
+        if (values.isEmpty()) return;
+        Map<String, RoaringBitmap> byValue = bitmaps.get(attribute);
+        RoaringBitmap any = new RoaringBitmap();
+        for (Object value : values) {
+            RoaringBitmap bitmap = byValue.get(String.valueOf(value));
+            if (bitmap != null) any.or(bitmap);
+        }
+        matches.and(any);
+    }
+
+    private Map<String, Map<String, Long>> facets(RoaringBitmap matches) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (Attribute attribute : Attribute.values()) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            bitmaps.get(attribute).forEach((value, bitmap) -> {
+                long count = RoaringBitmap.andCardinality(bitmap, matches);
+                if (count > 0) counts.put(value, count);
+            });
+            facets.put(attribute.facet, counts);
+        }
+        return facets;
+    }
+
+    /* =========================
+       MAINTENANCE
+    ========================= */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = bookRepo.findAllFilterAttributes();
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            books.clear();
+            bitmaps.values().forEach(Map::clear);
+            for (Object[] row : rows) {
+                add((Integer) row[0], values((Integer) row[1], (Integer) row[2], (Integer) row[3],
+                        (String) row[4], (Boolean) row[5]));
+            }
+            bitmaps.values().forEach(byValue -> byValue.values().forEach(RoaringBitmap::runOptimize));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Book filter index: " + rows.size() + " books in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.concerns(Book.class)) return;
+        if (event.getKind() == CatalogChangedEvent.Kind.BULK) {
+            rebuild();
+            return;
+        }
+        Book book = (Book) event.getEntity();
+        lock.writeLock().lock();
+        try {
+            remove(book.getId());
+            if (event.getKind() != CatalogChangedEvent.Kind.REMOVED) {
+                add(book.getId(), values(
+                        book.getSubject() != null ? book.getSubject().getId() : null,
+                        book.getBookType(),
+                        book.getShelf() != null ? book.getShelf().getId() : null,
+                        book.getGenre(),
+                        book.getIsHaveLibrary()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Keys as the filters and facets use them: ids as text; missing values are left out
+    private static Map<Attribute, String> values(Integer subjectId, Integer bookType, Integer shelfId,
+                                                 String genre, Boolean inLibrary) {
+        Map<Attribute, String> values = new EnumMap<>(Attribute.class);
+        put(values, Attribute.SUBJECT, subjectId);
+        put(values, Attribute.BOOK_TYPE, bookType);
+        put(values, Attribute.SHELF, shelfId);
+        put(values, Attribute.GENRE, genre);
+        values.put(Attribute.IN_LIBRARY, String.valueOf(Boolean.TRUE.equals(inLibrary)));
+        return values;
+    }
+
+    private static void put(Map<Attribute, String> values, Attribute attribute, Object value) {
+        if (value != null) values.put(attribute, value.toString());
+    }
+
+    private void add(int id, Map<Attribute, String> values) {
+        all.add(id);
+        books.put(id, values);
+        values.forEach((attribute, value) ->
+                bitmaps.get(attribute).computeIfAbsent(value, v -> new RoaringBitmap()).add(id));
+    }
+
+    private void remove(int id) {
+        Map<Attribute, String> old = books.remove(id);
+        if (old == null) return;
+        all.remove(id);
+        old.forEach((attribute, value) -> {
+            Map<String, RoaringBitmap> byValue = bitmaps.get(attribute);
+            RoaringBitmap bitmap = byValue.get(value);
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) byValue.remove(value);
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.backend.Services.SearchService;
+
+import com.example.backend.DTO.SearchHitDTO;
+import com.example.backend.DTO.SearchResultDTO;
+import com.example.backend.Entity.Attachment;
+import com.example.backend.Entity.Audio;
+import com.example.backend.Entity.Badiiy;
+import com.example.backend.Entity.Book;
+import com.example.backend.Entity.Ilmiy;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * One search over all four catalogs. The search_index table holds a row per book,
+ * badiiy, audio and ilmiy with its title, author, cover and folded search key; a single
+ * trigram lookup there answers the page and the per-type counts.
+ * <p>
+ * Rows follow the catalogs through {@link CatalogChangedEvent}s: single entity writes
+ * are upserted or deleted, bulk changes rebuild that type from its table. The whole
+ * index is rebuilt at startup by SearchIndexInitializer.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogSearchService {
+
+    public enum Type {
+        BOOK("SELECT id, name, author, image_id, created_at, search_key FROM book"),
+        BADIIY("SELECT id, name, author, image_id, created_at, search_key FROM badiiy"),
+        AUDIO("SELECT id, name, author, image_id, created_at, search_key FROM audio"),
+        ILMIY("SELECT id, mavzu, author, NULL::uuid, created_at, search_key FROM ilmiy");
+
+        // Columns in search_index order: entity_id, title, author, image_id, created_at, search_key
+        private final String sourceSql;
+
+        Type(String sourceSql) {
+            this.sourceSql = sourceSql;
+        }
+
+        static Type of(Class<?> entityType) {
+            if (entityType == Book.class) return BOOK;
+            if (entityType == Badiiy.class) return BADIIY;
+            if (entityType == Audio.class) return AUDIO;
+            if (entityType == Ilmiy.class) return ILMIY;
+            return null;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but book / badiiy / audio / ilmiy
+         */
+        public static Type parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO search_index (type, entity_id, title, author, image_id, created_at, search_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (type, entity_id) DO UPDATE SET
+                title = EXCLUDED.title,
+                author = EXCLUDED.author,
+                image_id = EXCLUDED.image_id,
+                created_at = EXCLUDED.created_at,
+                search_key = EXCLUDED.search_key
+            """;
+
+    // Matches are collected once; the page and the per-type counts are both taken from them
+    private static final String SEARCH_SQL = """
+            WITH hits AS MATERIALIZED (
+                SELECT type, entity_id, title, author, image_id, created_at,
+                       word_similarity(?, search_key) AS score
+                FROM search_index
+                WHERE search_key LIKE '%' || ? || '%' OR ? <% search_key
+            )
+            SELECT * FROM (
+                SELECT type, entity_id, title, author, image_id, created_at, score, NULL::bigint AS matches,
+                       row_number() OVER (ORDER BY score DESC, created_at DESC NULLS LAST, type, entity_id DESC) AS rank
+                FROM hits
+                WHERE type = ANY (?)
+                ORDER BY rank
+                LIMIT ? OFFSET ?
+            ) page
+            UNION ALL
+            SELECT type, NULL, NULL, NULL, NULL, NULL, NULL, COUNT(*), NULL
+            FROM hits
+            GROUP BY type
+            ORDER BY rank NULLS LAST
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param types the types to list; counts cover every type regardless
+     */
+    public SearchResultDTO search(String query, Set<Type> types, int page, int size) {
+        String key = SearchQueries.toSearchKey(query);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Type type : Type.values()) {
+            counts.put(type.name(), 0L);
+        }
+        List<SearchHitDTO> hits = new ArrayList<>();
+        if (!key.isEmpty()) {
+            String[] typeNames = types.stream().map(Type::name).toArray(String[]::new);
+            jdbcTemplate.query(SEARCH_SQL, rs -> {
+                String type = rs.getString("type");
+                long matches = rs.getLong("matches");
+                if (!rs.wasNull()) {
+                    counts.put(type, matches);
+                    return;
+                }
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                hits.add(SearchHitDTO.builder()
+                        .type(type)
+                        .id(rs.getInt("entity_id"))
+                        .title(rs.getString("title"))
+                        .author(rs.getString("author"))
+                        .imageId(rs.getObject("image_id", UUID.class))
+                        .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                        .score(rs.getDouble("score"))
+                        .build());
+            }, key, key, key, typeNames, size, (long) page * size);
+        }
+        long total = types.stream().mapToLong(type -> counts.get(type.name())).sum();
+        return SearchResultDTO.builder()
+                .content(hits)
+                .counts(counts)
+                .total(total)
+                .page(page)
+                .size(size)
+                .build();
+    }
+
+    /* =========================
+       INDEX MAINTENANCE
+    ========================= */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Type type = Type.of(event.getEntityType());
+        if (type == null) return;
+        try {
+            switch (event.getKind()) {
+                case PERSISTED, UPDATED -> upsert(type, event.getEntity());
+                case REMOVED -> jdbcTemplate.update("DELETE FROM search_index WHERE type = ? AND entity_id = ?",
+                        type.name(), entityId(event.getEntity()));
+                case BULK -> reindex(type);
+            }
+        } catch (Exception e) {
+            // The catalog write itself is committed; the row is put right by the next rebuild
+            System.err.println("Search index update failed for " + type + ": " + e.getMessage());
+        }
+    }
+
+    public void reindexAll() {
+        for (Type type : Type.values()) {
+            reindex(type);
+        }
+    }
+
+    public void reindex(Type type) {
+        int rows = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM search_index WHERE type = ?", type.name());
+            return jdbcTemplate.update("INSERT INTO search_index (type, entity_id, title, author, image_id, created_at, search_key) "
+                    + "SELECT ?, s.* FROM (" + type.sourceSql + ") s", type.name());
+        }));
+        System.out.println("Search index: " + rows + " " + type + " rows");
+    }
+
+    private void upsert(Type type, Object entity) {
+        Integer id;
+        String title;
+        String author;
+        Attachment image;
+        LocalDateTime createdAt;
+        String searchKey;
+        if (entity instanceof Book book) {
+            id = book.getId();
+            title = book.getName();
+            author = book.getAuthor();
+            image = book.getImage();
+            createdAt = book.getCreatedAt();
+            searchKey = book.getSearchKey();
+        } else if (entity instanceof Badiiy badiiy) {
+            id = badiiy.getId();
+            title = badiiy.getName();
+            author = badiiy.getAuthor();
+            image = badiiy.getImage();
+            createdAt = badiiy.getCreatedAt();
+            searchKey = badiiy.getSearchKey();
+        } else if (entity instanceof Audio audio) {
+            id = audio.getId();
+            title = audio.getName();
+            author = audio.getAuthor();
+            image = audio.getImage();
+            createdAt = audio.getCreatedAt();
+            searchKey = audio.getSearchKey();
+        } else if (entity instanceof Ilmiy ilmiy) {
+            id = ilmiy.getId();
+            title = ilmiy.getMavzu();
+            author = ilmiy.getAuthor();
+            image = null;
+            createdAt = ilmiy.getCreatedAt();
+            searchKey = ilmiy.getSearchKey();
+        } else {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, type.name(), id, title, author,
+                image != null ? image.getId() : null,
+                createdAt != null ? Timestamp.valueOf(createdAt) : null,
+                searchKey != null ? searchKey : "");
+    }
+
+    private static Integer entityId(Object entity) {
+        if (entity instanceof Book book) return book.getId();
+        if (entity instanceof Badiiy badiiy) return badiiy.getId();
+        if (entity instanceof Audio audio) return audio.getId();
+        if (entity instanceof Ilmiy ilmiy) return ilmiy.getId();
+        throw new IllegalArgumentException("Not a catalog entity: " + entity);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.backend.Services.SearchService;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Completion trie over folded search keys ({@link SearchQueries#toSearchKey}). Every
+ * value is reachable from the start of each of its first {@value #MAX_WORD_STARTS}
+ * words, so "tili" completes to "O‘zbek tili" as well. Values are counted by their key:
+ * the same author on 40 books is one suggestion that ranks above an author with two, and
+ * "O‘zbek tili" and "O'zbek tili" are one suggestion, shown as it was first added.
+ * <p>
+ * Chains of single children are collapsed into one edge (a radix tree), so the trie has
+ * about two nodes per key rather than one per character; removing the last value of a key
+ * prunes the nodes it leaves empty and merges the edges around them. Each node caches its best
+ * {@value #TOP} values; a change clears the caches on its path only, and they are rebuilt
+ * from the children's caches on the next lookup.
+ */
+class PrefixTrie {
+
+    static final int TOP = 10;
+    private static final int MAX_WORD_STARTS = 6;
+    private static final Comparator<Map.Entry<String, Integer>> BEST_FIRST =
+            Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final Node root = new Node();
+    // Key -> the form it is suggested in
+    private final Map<String, String> displays = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final class Node {
+        private static final char[] NO_FIRSTS = {};
+        private static final String[] NO_LABELS = {};
+        private static final Node[] NO_CHILDREN = {};
+
+        // Edges sorted by their first character; most nodes are leaves and share the empty arrays
+        char[] firsts = NO_FIRSTS;
+        String[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        // Keys that (or one of whose word starts) end here → how often they were added
+        Map<String, Integer> values;
+        // Best values in this subtree, best first; null when stale
+        volatile List<Map.Entry<String, Integer>> top;
+
+        int edge(char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        void insertEdge(int at, String label, Node child) {
+            firsts = insert(firsts, at, label.charAt(0));
+            labels = insert(labels, at, label);
+            children = insert(children, at, child);
+        }
+
+        void removeEdge(int at) {
+            if (children.length == 1) {
+                firsts = NO_FIRSTS;
+                labels = NO_LABELS;
+                children = NO_CHILDREN;
+                return;
+            }
+            firsts = remove(firsts, at);
+            labels = remove(labels, at);
+            children = remove(children, at);
+        }
+
+        private static char[] remove(char[] array, int at) {
+            char[] shrunk = new char[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, at);
+            System.arraycopy(array, at + 1, shrunk, at, shrunk.length - at);
+            return shrunk;
+        }
+
+        private static <T> T[] remove(T[] array, int at) {
+            T[] shrunk = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, at + 1, shrunk, at, shrunk.length - at);
+            return shrunk;
+        }
+
+        private static char[] insert(char[] array, int at, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+
+        private static <T> T[] insert(T[] array, int at, T value) {
+            T[] grown = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            grown[at] = value;
+            return grown;
+        }
+    }
+
+    void add(String value) {
+        add(value, 1);
+    }
+
+    void add(String value, int count) {
+        change(value, count);
+    }
+
+    void remove(String value) {
+        change(value, -1);
+    }
+
+    /**
+     * Up to {@code limit} (at most {@value #TOP}) values with a word starting with
+     * {@code prefix}, most frequent first.
+     */
+    List<String> complete(String prefix, int limit) {
+        String key = SearchQueries.toSearchKey(prefix);
+        if (key.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) return List.of();
+            List<Map.Entry<String, Integer>> top = top(node);
+            List<String> values = new ArrayList<>(Math.min(limit, top.size()));
+            for (int i = 0; i < top.size() && i < limit; i++) {
+                values.add(displays.get(top.get(i).getKey()));
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills every node's cache, so the first lookups after a build are as fast as later ones.
+     */
+    void warmUp() {
+        lock.readLock().lock();
+        try {
+            top(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of nodes, the root included; lets tests check that removals prune.
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return count(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int count(Node node) {
+        int nodes = 1;
+        for (Node child : node.children) {
+            nodes += count(child);
+        }
+        return nodes;
+    }
+
+    // The node whose subtree holds exactly the keys starting with key
+    private Node find(String key) {
+        Node node = root;
+        int at = 0;
+        while (at < key.length()) {
+            int i = node.edge(key.charAt(at));
+            if (i < 0) return null;
+            String label = node.labels[i];
+            int rest = key.length() - at;
+            if (rest <= label.length()) {
+                return label.regionMatches(0, key, at, rest) ? node.children[i] : null;
+            }
+            if (!key.startsWith(label, at)) return null;
+            at += label.length();
+            node = node.children[i];
+        }
+        return node;
+    }
+
+    private void change(String value, int delta) {
+        if (value == null || value.isBlank()) return;
+        String key = SearchQueries.toSearchKey(value);
+        if (key.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            int starts = 0;
+            for (int from = 0; from < key.length() && starts < MAX_WORD_STARTS; from++) {
+                if (from > 0 && key.charAt(from - 1) != ' ') continue;
+                starts++;
+                if (delta > 0) {
+                    Node node = insert(key, from);
+                    if (node.values == null) node.values = new HashMap<>(2);
+                    node.values.merge(key, delta, Integer::sum);
+                } else {
+                    remove(key, from, -delta);
+                }
+            }
+            if (delta > 0) {
+                displays.putIfAbsent(key, value.trim());
+            } else if (!contains(key)) {
+                displays.remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean contains(String key) {
+        Node node = find(key);
+        return node != null && node.values != null && node.values.containsKey(key);
+    }
+
+    // The node for key[from..], creating and splitting edges as needed; clears the caches on the way
+    private Node insert(String key, int from) {
+        Node node = root;
+        node.top = null;
+        int at = from;
+        while (at < key.length()) {
+            int i = node.edge(key.charAt(at));
+            if (i < 0) {
+                Node leaf = new Node();
+                node.insertEdge(-i - 1, key.substring(at), leaf);
+                return leaf;
+            }
+            String label = node.labels[i];
+            int common = 1;
+            while (common < label.length() && at + common < key.length()
+                    && label.charAt(common) == key.charAt(at + common)) {
+                common++;
+            }
+            if (common < label.length()) {
+                // Split the edge: node -label[..common]-> middle -label[common..]-> old child
+                Node middle = new Node();
+                middle.insertEdge(0, label.substring(common), node.children[i]);
+                node.labels[i] = label.substring(0, common);
+                node.children[i] = middle;
+            }
+            node = node.children[i];
+            node.top = null;
+            at += common;
+        }
+        return node;
+    }
+
+    // Takes count off key at the node for key[from..], then prunes what is left empty
+    private void remove(String key, int from, int count) {
+        List<Node> parents = new ArrayList<>();
+        List<Integer> edges = new ArrayList<>();
+        Node node = root;
+        int at = from;
+        while (at < key.length()) {
+            int i = node.edge(key.charAt(at));
+            if (i < 0 || !key.startsWith(node.labels[i], at)) return;
+            parents.add(node);
+            edges.add(i);
+            at += node.labels[i].length();
+            node = node.children[i];
+        }
+        if (node.values == null || !node.values.containsKey(key)) return;
+        root.top = null;
+        for (int d = 0; d < parents.size(); d++) {
+            parents.get(d).children[edges.get(d)].top = null;
+        }
+        int left = node.values.get(key) - count;
+        if (left > 0) {
+            node.values.put(key, left);
+        } else {
+            node.values.remove(key);
+            if (node.values.isEmpty()) node.values = null;
+        }
+
+        for (int d = parents.size() - 1; d >= 0; d--) {
+            Node parent = parents.get(d);
+            int i = edges.get(d);
+            Node child = parent.children[i];
+            if (child.values != null) break;
+            if (child.children.length == 0) {
+                parent.removeEdge(i);
+                continue;
+            }
+            if (child.children.length == 1) {
+                // parent -a-> child -b-> grandchild becomes parent -ab-> grandchild
+                parent.labels[i] = parent.labels[i] + child.labels[0];
+                parent.children[i] = child.children[0];
+            }
+            break;
+        }
+    }
+
+    // Called under the read lock; racing readers compute the same list, so either may win
+    private List<Map.Entry<String, Integer>> top(Node node) {
+        List<Map.Entry<String, Integer>> cached = node.top;
+        if (cached != null) return cached;
+        Map<String, Integer> best = new HashMap<>();
+        if (node.values != null) best.putAll(node.values);
+        for (Node child : node.children) {
+            for (Map.Entry<String, Integer> entry : top(child)) {
+                // A value can sit under the same prefix through two of its words
+                best.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        }
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(best.entrySet());
+        sorted.sort(BEST_FIRST);
+        List<Map.Entry<String, Integer>> top = sorted.subList(0, Math.min(TOP, sorted.size())).stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+        node.top = top;
+        return top;
+    }
+}
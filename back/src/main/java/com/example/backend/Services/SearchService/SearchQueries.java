@@ -0,0 +1,71 @@
+package com.example.backend.Services.SearchService;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public final class SearchQueries {
+
+    // Uzbek Cyrillic (and the Russian letters it lacks) to Uzbek Latin, apostrophes already dropped
+    private static final Map<Character, String> CYRILLIC_TO_LATIN = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ё', "yo"), Map.entry('ж', "j"),
+            Map.entry('з', "z"), Map.entry('и', "i"), Map.entry('й', "y"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"),
+            Map.entry('п', "p"), Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "x"), Map.entry('ц', "ts"),
+            Map.entry('ч', "ch"), Map.entry('ш', "sh"), Map.entry('щ', "sh"), Map.entry('ъ', ""),
+            Map.entry('ы', "i"), Map.entry('ь', ""), Map.entry('э', "e"), Map.entry('ю', "yu"),
+            Map.entry('я', "ya"), Map.entry('ў', "o"), Map.entry('қ', "q"), Map.entry('ғ', "g"),
+            Map.entry('ҳ', "h"), Map.entry('і', "i")
+    );
+    // o‘ o' oʻ o` o’ ... all mean the same letter; users type any of them or none
+    private static final Pattern APOSTROPHES = Pattern.compile("['`´‘’ʻʼʹ′]");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchQueries() {
+    }
+
+    /**
+     * The form catalog text is matched in: lower case Uzbek Latin without apostrophes or
+     * accents, words separated by single spaces. "Ўзбек тили", "O‘zbek tili" and
+     * "o'zbek  TILI" all become "ozbek tili". Null parts are skipped.
+     */
+    public static String toSearchKey(String... parts) {
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            if (part != null) text.append(part).append(' ');
+        }
+        String lower = APOSTROPHES.matcher(text.toString().toLowerCase(Locale.ROOT)).replaceAll("");
+        StringBuilder latin = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String mapped = CYRILLIC_TO_LATIN.get(c);
+            if (mapped != null) latin.append(mapped);
+            else latin.append(c);
+        }
+        // Decomposing only now: й and ў would otherwise lose their breve before being mapped
+        String plain = MARKS.matcher(Normalizer.normalize(latin, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain).replaceAll(" ").trim();
+    }
+
+    /**
+     * Turns free user input into a prefix tsquery: "dasturlash asos" -> "dasturlash:* & asos:*".
+     * Only letters and digits survive, so the result is always valid tsquery syntax.
+     * Returns an empty string when nothing searchable is left.
+     */
+    public static String toPrefixTsQuery(String text) {
+        if (text == null) return "";
+        List<String> terms = new ArrayList<>();
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token + ":*");
+            }
+        }
+        return String.join(" & ", terms);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.backend.Services.StatisticService;
+
+import com.example.backend.Repository.BookRepo;
+import com.example.backend.Repository.FacultyRepo;
+import com.example.backend.Repository.FacultySubjectRepo;
+import com.example.backend.Services.CatalogChangeService.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the dashboard statistics in memory. The snapshot is dropped whenever a
+ * catalog entity is committed and rebuilt on the next request; the max age only
+ * exists because "last 7 days" moves on its own.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticService {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private static final String SCALAR_COUNTS_SQL = """
+            WITH b AS (
+                SELECT COUNT(*) AS books_count,
+                       SUM(library_count) AS books_library_count,
+                       COUNT(*) FILTER (WHERE book_type = 1) AS asosiy_count,
+                       COUNT(*) FILTER (WHERE book_type = 2) AS qoshimcha_count,
+                       COUNT(*) FILTER (WHERE book_type = 3) AS tayanch_count,
+                       COUNT(*) FILTER (WHERE created_at >= ?) AS last7_count
+                FROM book
+            )
+            SELECT b.*,
+                   (SELECT COUNT(*) FROM faculty) AS faculties_count,
+                   (SELECT COUNT(*) FROM subject) AS subjects_count,
+                   (SELECT COUNT(*) FROM faculty_subject) AS faculty_subjects_count,
+                   (SELECT COUNT(*) FROM badiiy) AS badiiy_count,
+                   (SELECT COUNT(*) FROM audio) AS audio_count,
+                   (SELECT COUNT(*) FROM subject s
+                     WHERE NOT EXISTS (SELECT 1 FROM faculty_subject fs WHERE fs.subject_id = s.id)) AS unassigned_count
+            FROM b
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookRepo bookRepo;
+    private final FacultyRepo facultyRepo;
+    private final FacultySubjectRepo facultySubjectRepo;
+
+    private volatile Snapshot snapshot;
+    // Bumped on every catalog change; a snapshot is only kept if no change came in while it was read
+    private final AtomicLong generation = new AtomicLong();
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        if (current == null || current.isExpired()) {
+            current = refresh();
+        }
+        return current.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private synchronized Snapshot refresh() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+
+        long readGeneration = generation.get();
+        Map<String, Object> counts = jdbcTemplate.queryForMap(
+                SCALAR_COUNTS_SQL, Timestamp.valueOf(LocalDateTime.now().minusDays(7)));
+
+        Map<String, Object> stats = new HashMap<>();
+
+        /* =====================
+           BASIC COUNTS
+        ===================== */
+        stats.put("booksCount", counts.get("books_count"));
+        stats.put("booksLibraryCount", counts.get("books_library_count"));
+        stats.put("facultiesCount", counts.get("faculties_count"));
+        stats.put("subjectsCount", counts.get("subjects_count"));
+        stats.put("facultySubjectsCount", counts.get("faculty_subjects_count"));
+        stats.put("badiiyCount", counts.get("badiiy_count"));
+        stats.put("audioCount", counts.get("audio_count"));
+        stats.put("asosiyAdabiyotCount", counts.get("asosiy_count"));
+        stats.put("qoshimchaAdabiyotCount", counts.get("qoshimcha_count"));
+        stats.put("tayanchdaYoqCount", counts.get("tayanch_count"));
+
+        /* =====================
+           BOOK STATISTICS
+        ===================== */
+        stats.put("last7DaysBooks", counts.get("last7_count"));
+        stats.put("booksBySubject", bookRepo.countBooksBySubject());
+
+        /* =====================
+           FACULTY / SUBJECT STATISTICS
+        ===================== */
+        stats.put("facultiesByEducationType", facultyRepo.countByEducationType());
+        stats.put("unassignedSubjects", counts.get("unassigned_count"));
+        stats.put("subjectsPerFaculty", facultySubjectRepo.countSubjectsPerFaculty());
+
+        current = new Snapshot(Collections.unmodifiableMap(stats), System.nanoTime());
+        // A change committed during the queries may or may not be in these numbers: answer
+        // with them, but do not cache them for MAX_AGE
+        if (generation.get() == readGeneration) {
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private record Snapshot(Map<String, Object> stats, long createdAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - createdAtNanos > MAX_AGE.toNanos();
+        }
+    }
+}
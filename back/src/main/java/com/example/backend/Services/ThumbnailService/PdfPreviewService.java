@@ -0,0 +1,212 @@
+package com.example.backend.Services.ThumbnailService;
+
+import com.example.backend.Entity.Attachment;
+import com.example.backend.Services.AttachmentService.AttachmentStorage;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JPEG previews of the first pages of a PDF, so readers can check a book without
+ * downloading it. A preview is rendered on first request and kept with the attachment's
+ * other derived files.
+ * <p>
+ * A PDF that cannot be parsed gets a marker next to where its preview would be, so it is
+ * not parsed again on every request; the marker expires after {@code FAILED_TTL} in case
+ * the error was not the file's fault after all. Errors writing the preview itself (disk
+ * full, no temp file) are not remembered.
+ * <p>
+ * Rendering runs on a small pool ({@code library.preview.threads}) with a bounded queue
+ * ({@code library.preview.queue}); requests for a preview that is already being rendered
+ * wait for that render instead of starting another.
+ */
+@Service
+public class PdfPreviewService {
+
+    public static final int MAX_PAGES = 5;
+    private static final int WIDTH = 800;
+    private static final float MAX_DPI = 300;
+    private static final long WAIT_SECONDS = 30;
+    // How long a failure marker stops new attempts; also used by ThumbnailService
+    static final Duration FAILED_TTL = Duration.ofHours(1);
+
+    private final AttachmentStorage attachmentStorage;
+    private final ThreadPoolExecutor renderers;
+    private final Map<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    public PdfPreviewService(AttachmentStorage attachmentStorage,
+                             @Value("${library.preview.threads:2}") int threads,
+                             @Value("${library.preview.queue:16}") int queueCapacity) {
+        this.attachmentStorage = attachmentStorage;
+        AtomicInteger counter = new AtomicInteger();
+        this.renderers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-preview-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderers.shutdownNow();
+    }
+
+    /**
+     * Path of the preview of the first {@code pages} pages, rendering it if needed; null
+     * when the attachment is not a readable PDF.
+     *
+     * @throws IllegalArgumentException   if {@code pages} is not between 1 and {@value #MAX_PAGES}
+     * @throws RejectedExecutionException if the render queue is full
+     * @throws TimeoutException           if rendering takes longer than {@value #WAIT_SECONDS}s;
+     *                                    it goes on and a later request will find the result
+     */
+    public Path preview(Attachment attachment, int pages) throws IOException, TimeoutException {
+        if (pages < 1 || pages > MAX_PAGES) {
+            throw new IllegalArgumentException("pages must be between 1 and " + MAX_PAGES);
+        }
+        Path dir = attachmentStorage.derivedDir(attachment);
+        Path target = dir.resolve("preview-" + pages + ".jpg");
+        if (Files.exists(target)) return target;
+        if (failedRecently(failedMarker(dir, pages))) return null;
+
+        Path source = attachmentStorage.resolve(attachment);
+        if (!Files.isRegularFile(source)) return null;
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> future = rendering.putIfAbsent(target, created);
+        if (future == null) {
+            future = created;
+            try {
+                renderers.execute(() -> {
+                    try {
+                        created.complete(render(source, dir, target, pages));
+                    } catch (Throwable e) {
+                        created.completeExceptionally(e);
+                    } finally {
+                        rendering.remove(target, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rendering.remove(target, created);
+                throw e;
+            }
+        }
+
+        try {
+            return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for preview", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Path render(Path source, Path dir, Path target, int pages) throws IOException {
+        if (Files.exists(target)) return target;
+
+        List<BufferedImage> images = new ArrayList<>();
+        // Temp files rather than heap for the parsed document; some scans are hundreds of MB
+        try (PDDocument document = PDDocument.load(source.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            PDFRenderer renderer = new PDFRenderer(document);
+            int count = Math.min(pages, document.getNumberOfPages());
+            for (int i = 0; i < count; i++) {
+                images.add(renderer.renderImageWithDPI(i, dpi(document.getPage(i)), ImageType.RGB));
+            }
+        } catch (FileSystemException e) {
+            // The file could not be opened or a temp file not created: nothing wrong with the PDF
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot render PDF " + source + ": " + e.getMessage());
+            markFailed(dir, pages, String.valueOf(e.getMessage()));
+            return null;
+        }
+        if (images.isEmpty()) {
+            markFailed(dir, pages, "No pages");
+            return null;
+        }
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "preview-", ".tmp");
+        try {
+            ThumbnailService.write(stack(images), "jpeg", tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return target;
+    }
+
+    private static Path failedMarker(Path dir, int pages) {
+        return dir.resolve("preview-" + pages + ".failed");
+    }
+
+    static boolean failedRecently(Path marker) throws IOException {
+        try {
+            return Files.getLastModifiedTime(marker).toInstant().isAfter(Instant.now().minus(FAILED_TTL));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static void markFailed(Path dir, int pages, String reason) throws IOException {
+        Files.createDirectories(dir);
+        Files.writeString(failedMarker(dir, pages), reason);
+    }
+
+    // Resolution at which the page comes out WIDTH pixels wide
+    private static float dpi(PDPage page) {
+        PDRectangle box = page.getCropBox();
+        float width = page.getRotation() % 180 == 0 ? box.getWidth() : box.getHeight();
+        if (width <= 0) return 72;
+        return Math.min(MAX_DPI, 72f * WIDTH / width);
+    }
+
+    // Pages one under another, all scaled to WIDTH
+    private static BufferedImage stack(List<BufferedImage> pages) {
+        if (pages.size() == 1 && pages.get(0).getWidth() == WIDTH) return pages.get(0);
+        int[] heights = new int[pages.size()];
+        int total = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            BufferedImage page = pages.get(i);
+            heights[i] = Math.max(1, (int) Math.round((double) page.getHeight() * WIDTH / page.getWidth()));
+            total += heights[i];
+        }
+        BufferedImage sheet = new BufferedImage(WIDTH, total, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = sheet.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, WIDTH, total);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            int y = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                g.drawImage(pages.get(i), 0, y, WIDTH, heights[i], null);
+                y += heights[i];
+            }
+        } finally {
+            g.dispose();
+        }
+        return sheet;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.backend.Services.ThumbnailService;
+
+import com.example.backend.Entity.Attachment;
+import com.example.backend.Services.AttachmentService.AttachmentStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Scaled-down copies of cover images, made on first request and kept next to the
+ * attachment's other derived files. Covers with transparency become PNG, everything
+ * else JPEG. A file that cannot be decoded gets a marker like the one of
+ * {@link PdfPreviewService}, so it is not decoded again until the marker expires.
+ */
+@Service
+@RequiredArgsConstructor
+public class ThumbnailService {
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int LOCK_STRIPES = 32;
+
+    public enum Size {
+        SMALL(160), MEDIUM(320), LARGE(640);
+
+        private final int width;
+
+        Size(int width) {
+            this.width = width;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but small / medium / large
+         */
+        public static Size parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final AttachmentStorage attachmentStorage;
+    private final Object[] locks = newLocks();
+
+    /**
+     * Path of the thumbnail, generating it if needed; null when the attachment is not a
+     * readable image (callers then serve the original).
+     */
+    public Path thumbnail(Attachment attachment, Size size) throws IOException {
+        Path dir = attachmentStorage.derivedDir(attachment);
+        Path jpeg = dir.resolve(fileName(size, "jpg"));
+        Path png = dir.resolve(fileName(size, "png"));
+        Path failed = dir.resolve(fileName(size, "failed"));
+        if (Files.exists(jpeg)) return jpeg;
+        if (Files.exists(png)) return png;
+        if (PdfPreviewService.failedRecently(failed)) return null;
+
+        Path source = attachmentStorage.resolve(attachment);
+        if (!Files.isRegularFile(source)) return null;
+
+        synchronized (locks[Math.floorMod(dir.hashCode(), LOCK_STRIPES)]) {
+            if (Files.exists(jpeg)) return jpeg;
+            if (Files.exists(png)) return png;
+            if (PdfPreviewService.failedRecently(failed)) return null;
+
+            BufferedImage image = read(source, size.width);
+            if (image == null) {
+                Files.createDirectories(dir);
+                Files.writeString(failed, "Not a readable image");
+                return null;
+            }
+            BufferedImage scaled = scale(image, size.width);
+            boolean alpha = scaled.getColorModel().hasAlpha();
+            Path target = alpha ? png : jpeg;
+
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "thumb-", ".tmp");
+            try {
+                write(scaled, alpha ? "png" : "jpeg", tmp);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return target;
+        }
+    }
+
+    public static String fileName(Size size, String extension) {
+        return "thumb-" + size.name().toLowerCase(Locale.ROOT) + "." + extension;
+    }
+
+    /**
+     * Decodes the image, skipping pixels while reading when it is much larger than needed
+     * so a 20-megapixel scan never has to sit in memory at full size.
+     */
+    private BufferedImage read(Path source, int targetWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep at least twice the target width for a clean final downscale
+                int step = Math.max(1, reader.getWidth(0) / (targetWidth * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cannot decode image " + source + ": " + e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image, int targetWidth) {
+        if (image.getWidth() <= targetWidth) {
+            targetWidth = image.getWidth();
+        }
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    static void write(BufferedImage image, String format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
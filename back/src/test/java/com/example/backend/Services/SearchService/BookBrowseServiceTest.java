@@ -0,0 +1,99 @@
+package com.example.backend.Services.SearchService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookBrowseServiceTest {
+
+    // Records the statements with their arguments written in place of the placeholders
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<String> statements = new ArrayList<>();
+        boolean fullTextMatches = true;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            statements.add(inline(sql, args));
+            boolean empty = !fullTextMatches && sql.contains("to_tsquery");
+            return empty ? List.of() : (List<T>) List.of(7);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            statements.add(inline(sql, args));
+        }
+
+        private static String inline(String sql, Object[] args) {
+            StringBuilder out = new StringBuilder();
+            int next = 0;
+            for (char c : sql.toCharArray()) {
+                if (c != '?') {
+                    out.append(c);
+                    continue;
+                }
+                assertTrue(next < args.length, "more placeholders than arguments in " + sql);
+                Object arg = args[next++];
+                out.append(arg instanceof String ? "'" + arg + "'" : String.valueOf(arg));
+            }
+            assertEquals(args.length, next, "more arguments than placeholders in " + sql);
+            return out.toString().replaceAll("\\s+", " ");
+        }
+    }
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    // Never built here, so every request takes the SQL path
+    private final BookBrowseService service = new BookBrowseService(jdbcTemplate, new BookFilterIndex(null));
+
+    private static BookFilter filter(String q, String title, List<Integer> subjectIds) {
+        return new BookFilter(q, title, "", "", subjectIds, null, null, null, null);
+    }
+
+    @Test
+    void textWithOtherFiltersBindsEachPlaceholderToItsValue() {
+        service.browse(filter("fizika", "asos", List.of(3)), 0, 20, false);
+
+        String sql = jdbcTemplate.statements.get(0);
+        assertTrue(sql.contains("b.search_vector @@ to_tsquery('simple', 'fizika:*')"), sql);
+        assertTrue(sql.contains("LOWER(b.name) LIKE '%' || LOWER('asos') || '%'"), sql);
+        assertTrue(sql.contains("b.subject_id IN (3)"), sql);
+        assertTrue(sql.contains("ORDER BY ts_rank(b.search_vector, to_tsquery('simple', 'fizika:*')) DESC"), sql);
+        assertTrue(sql.contains("LIMIT 20 OFFSET 0"), sql);
+    }
+
+    @Test
+    void trigramFallbackBindsEachPlaceholderToItsValue() {
+        jdbcTemplate.fullTextMatches = false;
+        service.browse(filter("fizka", "", List.of(3, 5)), 0, 20, false);
+
+        String sql = jdbcTemplate.statements.get(1);
+        assertTrue(sql.contains("b.search_key LIKE '%' || 'fizka' || '%' OR 'fizka' <% b.search_key"), sql);
+        assertTrue(sql.contains("b.subject_id IN (3, 5)"), sql);
+        assertTrue(sql.contains("ORDER BY word_similarity('fizka', b.search_key) DESC"), sql);
+    }
+
+    @Test
+    void facetsStatementBindsScoreBeforeFilters() {
+        service.browse(filter("fizika", "", List.of(3)), 1, 10, true);
+
+        String sql = jdbcTemplate.statements.get(0);
+        assertTrue(sql.contains("ts_rank(b.search_vector, to_tsquery('simple', 'fizika:*')) AS score"), sql);
+        assertTrue(sql.contains("b.subject_id IN (3)"), sql);
+        assertTrue(sql.contains("LIMIT 10 OFFSET 10"), sql);
+    }
+
+    @Test
+    void rejectsPagingOutOfRange() {
+        BookFilter filter = filter("fizika", "", null);
+        assertThrows(IllegalArgumentException.class, () -> service.browse(filter, -1, 20, false));
+        assertThrows(IllegalArgumentException.class, () -> service.browse(filter, 0, 0, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.browse(filter, 0, BookBrowseService.MAX_SIZE + 1, false));
+        assertTrue(jdbcTemplate.statements.isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend.Services.SearchService;
+
+import com.example.backend.Repository.BookRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookFilterIndexTest {
+
+    private final BookRepo bookRepo = mock(BookRepo.class);
+    private final BookFilterIndex index = new BookFilterIndex(bookRepo);
+
+    @BeforeEach
+    void setUp() {
+        // id, subject, book type, shelf, genre, in library
+        when(bookRepo.findAllFilterAttributes()).thenReturn(List.of(
+                new Object[]{1, 3, 1, 10, "none", true},
+                new Object[]{2, 3, 1, null, null, null},
+                new Object[]{3, 5, 2, 10, "roman", false}
+        ));
+        index.rebuild();
+    }
+
+    private static BookFilter genre(String... genres) {
+        return new BookFilter("", "", "", "", null, null, null, List.of(genres), null);
+    }
+
+    @Test
+    void missingValuesMatchNoFilterValue() {
+        // Like b.genre IN ('none'): only the book whose genre really is "none"
+        assertEquals(List.of(1), index.browse(genre("none"), 0, 20, false).ids());
+        assertEquals(List.of(3), index.browse(genre("roman"), 0, 20, false).ids());
+    }
+
+    @Test
+    void missingValuesAreNotCountedAsFacetValues() {
+        Map<String, Map<String, Long>> facets = index.browse(genre(), 0, 20, true).facets();
+
+        assertEquals(Map.of("none", 1L, "roman", 1L), facets.get("genre"));
+        assertEquals(Map.of("10", 2L), facets.get("shelf"));
+        assertEquals(Map.of("true", 1L, "false", 2L), facets.get("inLibrary"));
+    }
+
+    @Test
+    void pagesNewestFirst() {
+        BookBrowseService.Result result = index.browse(genre(), 0, 2, false);
+        assertEquals(List.of(3, 2), result.ids());
+        assertEquals(3, result.total());
+        assertEquals(List.of(1), index.browse(genre(), 1, 2, false).ids());
+    }
+}
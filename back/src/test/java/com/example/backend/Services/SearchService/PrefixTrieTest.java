@@ -0,0 +1,104 @@
+package com.example.backend.Services.SearchService;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    private final PrefixTrie trie = new PrefixTrie();
+
+    @Test
+    void insertsSplittingAnEdgeKeepBothKeys() {
+        trie.add("Dasturlash");
+        trie.add("Dastur");
+        trie.add("Daraxt");
+
+        assertEquals(List.of("Daraxt", "Dastur", "Dasturlash"), trie.complete("da", 10));
+        assertEquals(List.of("Dastur", "Dasturlash"), trie.complete("dastur", 10));
+        assertEquals(List.of("Dasturlash"), trie.complete("dasturl", 10));
+        assertEquals(List.of(), trie.complete("dasturx", 10));
+    }
+
+    @Test
+    void matchesFromTheStartOfEveryWord() {
+        trie.add("O‘zbek tili");
+        trie.add("Ona tili va adabiyot");
+
+        // Equal counts: ordered by key, "ona ..." before "ozbek ..."
+        assertEquals(List.of("Ona tili va adabiyot", "O‘zbek tili"), trie.complete("til", 10));
+        assertEquals(List.of("Ona tili va adabiyot"), trie.complete("adab", 10));
+        // Inside a word is not a word start
+        assertEquals(List.of(), trie.complete("zbek", 10));
+        assertEquals(List.of("O‘zbek tili"), trie.complete("Ўзбек", 10));
+    }
+
+    @Test
+    void ranksByCountThenAlphabetically() {
+        trie.add("Navoiy", 2);
+        trie.add("Nodira");
+        trie.add("Nazar Eshonqul", 5);
+        trie.add("Nurali");
+
+        assertEquals(List.of("Nazar Eshonqul", "Navoiy", "Nodira", "Nurali"), trie.complete("n", 10));
+        assertEquals(List.of("Nazar Eshonqul", "Navoiy"), trie.complete("n", 2));
+    }
+
+    @Test
+    void spellingsOfOneKeyAreOneSuggestion() {
+        trie.add("O‘zbek tili");
+        trie.add("O'zbek tili");
+        trie.add("Ozbek tili");
+        trie.add("Ona tili", 2);
+
+        assertEquals(List.of("O‘zbek tili", "Ona tili"), trie.complete("o", 10));
+    }
+
+    @Test
+    void removeThenLookup() {
+        trie.add("Kimyo");
+        trie.add("Kimyo");
+        trie.add("Kino");
+
+        trie.remove("Kimyo");
+        assertEquals(List.of("Kimyo", "Kino"), trie.complete("ki", 10));
+
+        trie.remove("Kimyo");
+        assertEquals(List.of("Kino"), trie.complete("ki", 10));
+        assertEquals(List.of(), trie.complete("kim", 10));
+
+        trie.add("Kimyo");
+        assertEquals(List.of("Kimyo", "Kino"), trie.complete("ki", 10));
+    }
+
+    @Test
+    void removingEveryValuePrunesTheTrie() {
+        int empty = trie.nodeCount();
+        trie.add("Fizika asoslari");
+        trie.add("Fizika");
+        trie.add("Fil");
+        assertTrue(trie.nodeCount() > empty);
+
+        trie.remove("Fizika asoslari");
+        trie.remove("Fil");
+        assertEquals(List.of("Fizika"), trie.complete("f", 10));
+        // root -> "fizika"
+        assertEquals(2, trie.nodeCount());
+
+        trie.remove("Fizika");
+        assertEquals(empty, trie.nodeCount());
+        assertEquals(List.of(), trie.complete("f", 10));
+    }
+
+    @Test
+    void removingAnUnknownValueChangesNothing() {
+        trie.add("Tarix");
+        trie.remove("Tarixi");
+        trie.remove("Tar");
+
+        assertEquals(List.of("Tarix"), trie.complete("tar", 10));
+        assertEquals(2, trie.nodeCount());
+    }
+}
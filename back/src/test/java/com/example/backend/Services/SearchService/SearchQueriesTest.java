@@ -0,0 +1,48 @@
+package com.example.backend.Services.SearchService;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueriesTest {
+
+    @Test
+    void scriptsAndApostrophesMeetInOneKey() {
+        assertEquals("ozbek tili", SearchQueries.toSearchKey("Ўзбек тили"));
+        assertEquals("ozbek tili", SearchQueries.toSearchKey("O‘zbek tili"));
+        assertEquals("ozbek tili", SearchQueries.toSearchKey("o'zbek  TILI"));
+        assertEquals("ozbek tili", SearchQueries.toSearchKey("Oʻzbek tili"));
+    }
+
+    @Test
+    void uzbekCyrillicLetters() {
+        assertEquals("yolkin", SearchQueries.toSearchKey("Ёлкин"));
+        assertEquals("ogil", SearchQueries.toSearchKey("ўғил"));
+        assertEquals("qalb", SearchQueries.toSearchKey("Қалб"));
+        assertEquals("gazal", SearchQueries.toSearchKey("ғазал"));
+        assertEquals("hikoya", SearchQueries.toSearchKey("ҳикоя"));
+        assertEquals("shoir", SearchQueries.toSearchKey("шоир"));
+        assertEquals("yangi yil", SearchQueries.toSearchKey("Янги йил"));
+    }
+
+    @Test
+    void accentsAndSeparatorsAreDropped() {
+        assertEquals("cafe 2 bolim", SearchQueries.toSearchKey("  Café — 2-bo‘lim! "));
+    }
+
+    @Test
+    void partsAreJoinedAndNullsSkipped() {
+        assertEquals("alpomish xalq dostoni sharq",
+                SearchQueries.toSearchKey("Alpomish", null, "Xalq dostoni", "Sharq"));
+        assertEquals("", SearchQueries.toSearchKey((String) null));
+        assertEquals("", SearchQueries.toSearchKey());
+    }
+
+    @Test
+    void prefixTsQuery() {
+        assertEquals("dasturlash:* & asos:*", SearchQueries.toPrefixTsQuery("dasturlash asos"));
+        assertEquals("c:* & dasturlash:*", SearchQueries.toPrefixTsQuery("C++ (dasturlash)"));
+        assertEquals("", SearchQueries.toPrefixTsQuery(" &|!:* "));
+        assertEquals("", SearchQueries.toPrefixTsQuery(null));
+    }
+}